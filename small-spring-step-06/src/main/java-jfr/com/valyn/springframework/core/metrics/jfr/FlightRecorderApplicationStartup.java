@@ -0,0 +1,95 @@
+package com.valyn.springframework.core.metrics.jfr;
+
+import com.valyn.springframework.core.metrics.ApplicationStartup;
+import com.valyn.springframework.core.metrics.StartupStep;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FlightRecorderApplicationStartup 把每个启动步骤记录为一个 JFR 事件（com.valyn.springframework.StartupStep），
+ * 需要运行在带有 jdk.jfr 模块的 JDK 上，并通过 -XX:StartFlightRecording 等方式开启记录。
+ *
+ * 每个线程维护自己的当前步骤，因此并行预实例化时不同线程上的步骤各自嵌套。
+ * 只有使用此类时才会加载 jdk.jfr 中的类，上下文默认使用的空实现不依赖 JFR。
+ */
+public class FlightRecorderApplicationStartup implements ApplicationStartup {
+
+    private final AtomicLong currentId = new AtomicLong();
+
+    private final ThreadLocal<FlightRecorderStartupStep> currentStep = new ThreadLocal<>();
+
+    @Override
+    public StartupStep start(String name) {
+        FlightRecorderStartupStep parent = currentStep.get();
+        FlightRecorderStartupStep step = new FlightRecorderStartupStep(currentId.incrementAndGet(), parent, name);
+        currentStep.set(step);
+        return step;
+    }
+
+    /**
+     * 对应一个 JFR 事件的启动步骤。
+     */
+    private final class FlightRecorderStartupStep implements StartupStep {
+
+        private final FlightRecorderStartupEvent event = new FlightRecorderStartupEvent();
+
+        private final FlightRecorderStartupStep parent;
+
+        private StringBuilder tags;
+
+        private boolean ended;
+
+        FlightRecorderStartupStep(long id, FlightRecorderStartupStep parent, String name) {
+            this.parent = parent;
+            event.eventId = id;
+            event.parentId = parent != null ? parent.getId() : -1;
+            event.name = name;
+            event.begin();
+        }
+
+        @Override
+        public String getName() {
+            return event.name;
+        }
+
+        @Override
+        public long getId() {
+            return event.eventId;
+        }
+
+        @Override
+        public long getParentId() {
+            return event.parentId;
+        }
+
+        @Override
+        public StartupStep tag(String key, String value) {
+            if (tags == null) {
+                tags = new StringBuilder();
+            } else {
+                tags.append(", ");
+            }
+            tags.append(key).append('=').append(value);
+            return this;
+        }
+
+        @Override
+        public void end() {
+            if (ended) return;
+            ended = true;
+            event.end();
+            if (event.shouldCommit()) {
+                event.tags = tags != null ? tags.toString() : null;
+                event.commit();
+            }
+            if (currentStep.get() == this) {
+                if (parent != null) {
+                    currentStep.set(parent);
+                } else {
+                    currentStep.remove();
+                }
+            }
+        }
+    }
+
+}
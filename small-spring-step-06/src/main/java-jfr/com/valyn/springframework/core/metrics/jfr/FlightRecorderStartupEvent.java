@@ -0,0 +1,30 @@
+package com.valyn.springframework.core.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 启动步骤对应的 JFR 事件，事件的开始和结束时间就是步骤的开始和结束时间，可以在 JMC 中按 ID 和父 ID 还原步骤树。
+ */
+@Name("com.valyn.springframework.StartupStep")
+@Label("Startup Step")
+@Category({"Small Spring", "Application Startup"})
+@Description("Timed step of application context startup")
+class FlightRecorderStartupEvent extends Event {
+
+    @Label("Event Id")
+    long eventId;
+
+    @Label("Parent Id")
+    long parentId;
+
+    @Label("Name")
+    String name;
+
+    @Label("Tags")
+    String tags;
+
+}
@@ -9,10 +9,11 @@ public interface BeanFactory {
 
     /**
      * 根据名称获取对应的 Bean 对象。
+     * 池化作用域的 Bean 不能通过 getBean 获取，借出的实例需要归还，请使用 ConfigurableBeanFactory 的 borrowBean 和 returnBean。
      *
      * @param name Bean 的名称
      * @return 对应的 Bean 对象
-     * @throws BeansException 如果在获取 Bean 对象时出现异常
+     * @throws BeansException 如果在获取 Bean 对象时出现异常，或者 Bean 是池化作用域
      */
     Object getBean(String name) throws BeansException;
 
@@ -37,5 +38,44 @@ public interface BeanFactory {
      */
     <T> T getBean(String name, Class<T> requiredType) throws BeansException;
 
+    /**
+     * 根据类型获取唯一匹配的 Bean 对象。
+     *
+     * @param requiredType 目标类型
+     * @param <T>          目标类型的泛型
+     * @return 对应的 Bean 对象
+     * @throws BeansException 如果没有匹配的 Bean 或匹配的 Bean 不止一个
+     */
+    <T> T getBean(Class<T> requiredType) throws BeansException;
+
+    /**
+     * 返回指定类型 Bean 的提供者，用于按需、可选地获取 Bean。
+     *
+     * @param requiredType 目标类型
+     * @param <T>          目标类型的泛型
+     * @return 对应的 ObjectProvider
+     */
+    <T> ObjectProvider<T> getBeanProvider(Class<T> requiredType);
+
+    /**
+     * 返回指定名称 Bean 的句柄，单例 Bean 第一次解析后直接通过句柄字段访问。
+     *
+     * @param name Bean 的名称
+     * @return 对应的 BeanHandle
+     * @throws BeansException 如果不存在该名称的 Bean
+     */
+    BeanHandle<Object> getBeanHandle(String name) throws BeansException;
+
+    /**
+     * 返回指定名称和类型 Bean 的句柄，解析时校验 Bean 的类型。
+     *
+     * @param name         Bean 的名称
+     * @param requiredType 目标类型
+     * @param <T>          目标类型的泛型
+     * @return 对应的 BeanHandle
+     * @throws BeansException 如果不存在该名称的 Bean
+     */
+    <T> BeanHandle<T> getBeanHandle(String name, Class<T> requiredType) throws BeansException;
+
 }
 
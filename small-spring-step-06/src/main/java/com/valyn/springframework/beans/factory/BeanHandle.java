@@ -0,0 +1,30 @@
+package com.valyn.springframework.beans.factory;
+
+import com.valyn.springframework.beans.BeansException;
+
+/**
+ * BeanHandle 是对某个 Bean 的轻量引用，适合在热点代码中保存下来反复使用。
+ *
+ * 单例 Bean 在第一次 get() 时解析，之后直接返回保存在句柄字段中的实例，不再访问任何 Map；
+ * 原型、池化和自定义作用域的 Bean 每次 get() 都会重新走 BeanFactory 的获取流程。
+ *
+ * @param <T> Bean 的类型
+ */
+public interface BeanHandle<T> {
+
+    /**
+     * 获取 Bean 实例。
+     *
+     * @return Bean 实例
+     * @throws BeansException 如果获取 Bean 失败
+     */
+    T get() throws BeansException;
+
+    /**
+     * 获取句柄对应的 Bean 名称。
+     *
+     * @return Bean 的名称
+     */
+    String getBeanName();
+
+}
@@ -19,6 +19,18 @@ public interface ConfigurableListableBeanFactory extends ListableBeanFactory, Au
      */
     BeanDefinition getBeanDefinition(String beanName) throws BeansException;
 
+    /**
+     * 冻结所有 BeanDefinition，之后不允许再注册新的 BeanDefinition，并启用只读的单例查找索引。
+     */
+    void freezeConfiguration();
+
+    /**
+     * 判断配置是否已冻结。
+     *
+     * @return 如果已冻结则返回 true
+     */
+    boolean isConfigurationFrozen();
+
     /**
      * 预实例化所有单例 Bean 的方法。
      *
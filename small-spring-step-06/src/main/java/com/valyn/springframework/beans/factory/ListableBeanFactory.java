@@ -7,7 +7,7 @@ import java.util.Map;
 public interface ListableBeanFactory extends BeanFactory {
 
     /**
-     * 按照类型返回 Bean 实例。
+     * 按照类型返回 Bean 实例，不包含池化作用域的 Bean。
      *
      * @param type 要获取的 Bean 的类型
      * @param <T>  Bean 的类型参数
@@ -16,6 +16,14 @@ public interface ListableBeanFactory extends BeanFactory {
      */
     <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException;
 
+    /**
+     * 按照类型返回 Bean 名称，包括类型为其子类或实现类的 Bean。
+     *
+     * @param type 要匹配的类型
+     * @return 匹配类型的 Bean 名称数组，按注册顺序排列
+     */
+    String[] getBeanNamesForType(Class<?> type);
+
     /**
      * 返回注册表中所有的 Bean 名称。
      *
@@ -0,0 +1,20 @@
+package com.valyn.springframework.beans.factory;
+
+import com.valyn.springframework.beans.BeansException;
+
+/**
+ * ObjectFactory 接口定义了一个延迟获取对象的工厂，通常用于把 Bean 的创建过程交给注册表在合适的时机调用。
+ *
+ * @param <T> 对象的类型
+ */
+public interface ObjectFactory<T> {
+
+    /**
+     * 返回一个对象实例。
+     *
+     * @return 对象实例
+     * @throws BeansException 如果创建对象时出现异常
+     */
+    T getObject() throws BeansException;
+
+}
@@ -0,0 +1,20 @@
+package com.valyn.springframework.beans.factory;
+
+import com.valyn.springframework.beans.BeansException;
+
+/**
+ * ObjectProvider 接口是 ObjectFactory 的扩展，用于按需获取某个类型的 Bean，并允许目标 Bean 不存在。
+ *
+ * @param <T> 对象的类型
+ */
+public interface ObjectProvider<T> extends ObjectFactory<T> {
+
+    /**
+     * 返回目标 Bean，不存在时返回 null。
+     *
+     * @return 目标 Bean，不存在时返回 null
+     * @throws BeansException 如果存在多个候选 Bean 或创建失败
+     */
+    T getIfAvailable() throws BeansException;
+
+}
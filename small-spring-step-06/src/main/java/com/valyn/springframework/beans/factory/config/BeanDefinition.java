@@ -2,22 +2,49 @@ package com.valyn.springframework.beans.factory.config;
 
 import com.valyn.springframework.beans.PropertyValues;
 
+import java.util.function.Supplier;
+
 /**
  * BeanDefinition类表示一个Bean的定义。
+ *
+ * Bean 的类可以直接给出，也可以只给出类名：只有类名时，类在第一次需要时才通过 BeanFactory 的类加载器解析，
+ * 延迟初始化或从未使用的 Bean 不会加载它们的类。
  */
 public class BeanDefinition {
 
-    private Class beanClass; // Bean的类
+    /** 池化作用域默认的池容量 */
+    public static final int DEFAULT_POOL_SIZE = 8;
+
+    private volatile Class beanClass; // Bean的类，只给出类名时在解析后设置
+
+    private String beanClassName; // Bean的类名
 
     private PropertyValues propertyValues; // 属性值集合
 
+    private String scope = ConfigurableBeanFactory.SCOPE_SINGLETON; // 作用域
+
+    private int poolSize = DEFAULT_POOL_SIZE; // 池化作用域下池的容量
+
+    private boolean lazyInit = false; // 是否延迟初始化
+
+    private Supplier<?> instanceSupplier; // 实例提供者，设置后代替反射实例化
+
     /**
      * 构造方法，通过指定Bean的类创建BeanDefinition对象，并初始化属性值集合为空。
      *
      * @param beanClass Bean的类
      */
     public BeanDefinition(Class beanClass) {
-        this.beanClass = beanClass;
+        this(beanClass, null);
+    }
+
+    /**
+     * 构造方法，只指定Bean的类名，类在第一次需要时才解析。
+     *
+     * @param beanClassName Bean的类名
+     */
+    public BeanDefinition(String beanClassName) {
+        this.beanClassName = beanClassName;
         this.propertyValues = new PropertyValues();
     }
 
@@ -29,16 +56,22 @@ public class BeanDefinition {
      */
     public BeanDefinition(Class beanClass, PropertyValues propertyValues) {
         this.beanClass = beanClass;
+        this.beanClassName = beanClass != null ? beanClass.getName() : null;
         this.propertyValues = propertyValues != null ? propertyValues : new PropertyValues();
     }
 
     /**
-     * 获取Bean的类。
+     * 获取Bean的类。只给出类名的定义需要先通过 resolveBeanClass 解析。
      *
      * @return Bean的类
+     * @throws IllegalStateException 如果类名还没有解析为类
      */
     public Class getBeanClass() {
-        return beanClass;
+        Class clazz = beanClass;
+        if (clazz == null && beanClassName != null) {
+            throw new IllegalStateException("Bean class name [" + beanClassName + "] has not been resolved into an actual Class");
+        }
+        return clazz;
     }
 
     /**
@@ -48,6 +81,51 @@ public class BeanDefinition {
      */
     public void setBeanClass(Class beanClass) {
         this.beanClass = beanClass;
+        this.beanClassName = beanClass != null ? beanClass.getName() : null;
+    }
+
+    /**
+     * 获取Bean的类名，不会触发类的解析。
+     *
+     * @return Bean的类名
+     */
+    public String getBeanClassName() {
+        return beanClassName;
+    }
+
+    /**
+     * 设置Bean的类名，之前解析的类会被清除。
+     *
+     * @param beanClassName Bean的类名
+     */
+    public void setBeanClassName(String beanClassName) {
+        this.beanClassName = beanClassName;
+        this.beanClass = null;
+    }
+
+    /**
+     * Bean的类是否已经解析。
+     *
+     * @return 如果已有类对象则返回 true
+     */
+    public boolean hasBeanClass() {
+        return beanClass != null;
+    }
+
+    /**
+     * 使用指定的类加载器解析Bean的类，只加载不初始化，静态初始化推迟到第一次创建实例时。已解析时直接返回。
+     *
+     * @param classLoader 类加载器
+     * @return Bean的类
+     * @throws ClassNotFoundException 如果找不到类
+     */
+    public Class resolveBeanClass(ClassLoader classLoader) throws ClassNotFoundException {
+        Class clazz = beanClass;
+        if (clazz == null) {
+            clazz = Class.forName(beanClassName, false, classLoader);
+            beanClass = clazz;
+        }
+        return clazz;
     }
 
     /**
@@ -67,4 +145,107 @@ public class BeanDefinition {
     public void setPropertyValues(PropertyValues propertyValues) {
         this.propertyValues = propertyValues;
     }
+
+    /**
+     * 获取作用域。
+     *
+     * @return 作用域
+     */
+    public String getScope() {
+        return scope;
+    }
+
+    /**
+     * 设置作用域，为空时视为单例。
+     *
+     * @param scope 作用域，例如 singleton、prototype、pooled
+     */
+    public void setScope(String scope) {
+        this.scope = (scope == null || scope.isEmpty()) ? ConfigurableBeanFactory.SCOPE_SINGLETON : scope;
+    }
+
+    /**
+     * 是否为单例作用域。
+     *
+     * @return 如果是单例则返回 true
+     */
+    public boolean isSingleton() {
+        return ConfigurableBeanFactory.SCOPE_SINGLETON.equals(scope);
+    }
+
+    /**
+     * 是否为原型作用域。
+     *
+     * @return 如果是原型则返回 true
+     */
+    public boolean isPrototype() {
+        return ConfigurableBeanFactory.SCOPE_PROTOTYPE.equals(scope);
+    }
+
+    /**
+     * 是否为池化作用域。
+     *
+     * @return 如果是池化则返回 true
+     */
+    public boolean isPooled() {
+        return ConfigurableBeanFactory.SCOPE_POOLED.equals(scope);
+    }
+
+    /**
+     * 获取池化作用域下池的容量。
+     *
+     * @return 池的容量
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * 设置池化作用域下池的容量。
+     *
+     * @param poolSize 池的容量，必须大于 0
+     */
+    public void setPoolSize(int poolSize) {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive: " + poolSize);
+        }
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * 是否延迟初始化，延迟初始化的单例不会在 preInstantiateSingletons 中创建，而是在第一次获取时创建。
+     *
+     * @return 如果延迟初始化则返回 true
+     */
+    public boolean isLazyInit() {
+        return lazyInit;
+    }
+
+    /**
+     * 设置是否延迟初始化。
+     *
+     * @param lazyInit 是否延迟初始化
+     */
+    public void setLazyInit(boolean lazyInit) {
+        this.lazyInit = lazyInit;
+    }
+
+    /**
+     * 获取实例提供者。
+     *
+     * @return 实例提供者，未设置时返回 null
+     */
+    public Supplier<?> getInstanceSupplier() {
+        return instanceSupplier;
+    }
+
+    /**
+     * 设置实例提供者。设置后创建 Bean 时直接调用它得到实例，不再通过构造函数反射和实例化策略，
+     * 通常由预先生成的代码使用，提供者内部可以直接 new 对象并完成属性装配。
+     *
+     * @param instanceSupplier 实例提供者
+     */
+    public void setInstanceSupplier(Supplier<?> instanceSupplier) {
+        this.instanceSupplier = instanceSupplier;
+    }
 }
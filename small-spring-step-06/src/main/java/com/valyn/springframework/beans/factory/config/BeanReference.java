@@ -7,13 +7,27 @@ public class BeanReference {
 
     private final String beanName; // 引用的Bean名称
 
+    private final boolean lazy; // 是否延迟解析
+
     /**
      * 构造方法，通过指定Bean名称创建BeanReference对象。
      *
      * @param beanName 引用的Bean名称
      */
     public BeanReference(String beanName) {
+        this(beanName, false);
+    }
+
+    /**
+     * 构造方法，通过指定Bean名称和是否延迟解析创建BeanReference对象。
+     * 延迟解析的引用在注入时只注入一个代理或提供者，被引用的Bean在第一次使用时才创建。
+     *
+     * @param beanName 引用的Bean名称
+     * @param lazy     是否延迟解析
+     */
+    public BeanReference(String beanName, boolean lazy) {
         this.beanName = beanName;
+        this.lazy = lazy;
     }
 
     /**
@@ -25,4 +39,13 @@ public class BeanReference {
         return beanName;
     }
 
+    /**
+     * 是否延迟解析。
+     *
+     * @return 如果延迟解析则返回 true
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
+
 }
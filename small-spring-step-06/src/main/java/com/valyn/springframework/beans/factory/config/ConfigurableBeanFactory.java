@@ -1,6 +1,10 @@
 package com.valyn.springframework.beans.factory.config;
 
+import com.valyn.springframework.beans.BeansException;
 import com.valyn.springframework.beans.factory.HierarchicalBeanFactory;
+import com.valyn.springframework.core.metrics.ApplicationStartup;
+import com.valyn.springframework.core.metrics.BeanCreationProfiler;
+import com.valyn.springframework.core.metrics.BeanFactoryMetrics;
 
 /**
  * ConfigurableBeanFactory 接口继承自 HierarchicalBeanFactory 接口和 SingletonBeanRegistry 接口。
@@ -18,12 +22,110 @@ public interface ConfigurableBeanFactory extends HierarchicalBeanFactory, Single
      */
     String SCOPE_PROTOTYPE = "prototype";
 
+    /**
+     * 池化作用域的常量，实例从有界对象池中借出，使用完后归还。
+     */
+    String SCOPE_POOLED = "pooled";
+
+    /**
+     * 线程作用域的常量，实例绑定在当前线程打开的作用域上下文中。
+     */
+    String SCOPE_THREAD = "thread";
+
     /**
      * 添加一个 Bean 后置处理器。
      *
      * @param beanPostProcessor 要添加的 Bean 后置处理器
      */
     void addBeanPostProcessor(BeanPostProcessor beanPostProcessor);
-}
 
+    /**
+     * 从池化作用域的 Bean 池中借出一个实例，没有空闲实例时创建新实例，池中实例数量不超过池容量。
+     *
+     * @param name Bean 的名称
+     * @return 借出的 Bean 实例
+     * @throws BeansException 如果 Bean 不是池化作用域，或者池中所有实例都已借出
+     */
+    Object borrowBean(String name);
+
+    /**
+     * 将借出的实例归还到池化作用域的 Bean 池中。
+     *
+     * @param name Bean 的名称
+     * @param bean 借出的 Bean 实例
+     * @throws BeansException 如果 Bean 不是池化作用域，或者实例不是从该池借出的、已经归还过
+     */
+    void returnBean(String name, Object bean);
+
+    /**
+     * 注册一个自定义作用域。
+     *
+     * @param scopeName 作用域名称
+     * @param scope     作用域实现
+     */
+    void registerScope(String scopeName, Scope scope);
+
+    /**
+     * 获取已注册的自定义作用域。
+     *
+     * @param scopeName 作用域名称
+     * @return 作用域实现，未注册时返回 null
+     */
+    Scope getRegisteredScope(String scopeName);
+
+    /**
+     * 设置解析 Bean 类名使用的类加载器，默认为 ClassUtils.getDefaultClassLoader()。
+     *
+     * @param beanClassLoader 类加载器，为 null 时恢复默认值
+     */
+    void setBeanClassLoader(ClassLoader beanClassLoader);
+
+    /**
+     * 获取解析 Bean 类名使用的类加载器。
+     *
+     * @return 类加载器
+     */
+    ClassLoader getBeanClassLoader();
+
+    /**
+     * 设置记录 Bean 创建步骤的 ApplicationStartup，默认为不记录的 ApplicationStartup.DEFAULT。
+     *
+     * @param applicationStartup 启动步骤记录器，为 null 时恢复默认值
+     */
+    void setApplicationStartup(ApplicationStartup applicationStartup);
 
+    /**
+     * 获取记录 Bean 创建步骤的 ApplicationStartup。
+     *
+     * @return 启动步骤记录器
+     */
+    ApplicationStartup getApplicationStartup();
+
+    /**
+     * 设置统计运行指标的 BeanFactoryMetrics，默认为 null，不统计。
+     *
+     * @param beanFactoryMetrics 运行指标，为 null 时停止统计
+     */
+    void setBeanFactoryMetrics(BeanFactoryMetrics beanFactoryMetrics);
+
+    /**
+     * 获取统计运行指标的 BeanFactoryMetrics。
+     *
+     * @return 运行指标，未开启时返回 null
+     */
+    BeanFactoryMetrics getBeanFactoryMetrics();
+
+    /**
+     * 设置统计每个 Bean 创建开销的 BeanCreationProfiler，默认为 null，不统计。
+     *
+     * @param beanCreationProfiler 创建开销统计器，为 null 时停止统计
+     */
+    void setBeanCreationProfiler(BeanCreationProfiler beanCreationProfiler);
+
+    /**
+     * 获取统计每个 Bean 创建开销的 BeanCreationProfiler。
+     *
+     * @return 创建开销统计器，未开启时返回 null
+     */
+    BeanCreationProfiler getBeanCreationProfiler();
+}
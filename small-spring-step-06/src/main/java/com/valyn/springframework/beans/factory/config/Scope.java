@@ -0,0 +1,35 @@
+package com.valyn.springframework.beans.factory.config;
+
+import com.valyn.springframework.beans.factory.ObjectFactory;
+
+/**
+ * Scope 接口定义了自定义作用域的能力，由 ConfigurableBeanFactory 注册，在获取非单例、非原型的 Bean 时使用。
+ */
+public interface Scope {
+
+    /**
+     * 从作用域中获取指定名称的对象，不存在时通过 objectFactory 创建并放入作用域。
+     *
+     * @param name          Bean 的名称
+     * @param objectFactory 用于创建对象的工厂
+     * @return 作用域中的对象
+     */
+    Object get(String name, ObjectFactory<?> objectFactory);
+
+    /**
+     * 从作用域中移除指定名称的对象。
+     *
+     * @param name Bean 的名称
+     * @return 被移除的对象，不存在时返回 null
+     */
+    Object remove(String name);
+
+    /**
+     * 注册一个回调，在作用域结束时调用，用于销毁作用域中的对象。
+     *
+     * @param name     Bean 的名称
+     * @param callback 销毁回调
+     */
+    void registerDestructionCallback(String name, Runnable callback);
+
+}
@@ -0,0 +1,19 @@
+package com.valyn.springframework.beans.factory.config;
+
+/**
+ * TargetedBeanPostProcessor 是声明了目标类型的 BeanPostProcessor。
+ *
+ * BeanFactory 按 Bean 的类预先计算并缓存适用的后置处理器链，只有 Bean 的类可以赋值给某个目标类型时才会调用该处理器；
+ * 没有实现此接口的 BeanPostProcessor 对所有 Bean 生效。
+ */
+public interface TargetedBeanPostProcessor extends BeanPostProcessor {
+
+    /**
+     * 获取此处理器关心的 Bean 类型，Bean 是其中任意一个类型（包括子类和实现类）时才会被处理。
+     * 返回值在处理器注册后不应再改变。
+     *
+     * @return 目标类型
+     */
+    Class<?>[] getTargetTypes();
+
+}
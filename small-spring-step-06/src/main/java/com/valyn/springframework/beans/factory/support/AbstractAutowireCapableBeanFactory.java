@@ -1,6 +1,6 @@
 package com.valyn.springframework.beans.factory.support;
 
-import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.util.ClassUtil;
 import com.valyn.springframework.beans.BeansException;
 import com.valyn.springframework.beans.PropertyValue;
 import com.valyn.springframework.beans.PropertyValues;
@@ -8,8 +8,15 @@ import com.valyn.springframework.beans.factory.config.AutowireCapableBeanFactory
 import com.valyn.springframework.beans.factory.config.BeanDefinition;
 import com.valyn.springframework.beans.factory.config.BeanPostProcessor;
 import com.valyn.springframework.beans.factory.config.BeanReference;
+import com.valyn.springframework.core.metrics.ApplicationStartup;
+import com.valyn.springframework.core.metrics.BeanCreationProfiler;
+import com.valyn.springframework.core.metrics.BeanFactoryMetrics;
+import com.valyn.springframework.core.metrics.StartupStep;
 
 import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * AbstractAutowireCapableBeanFactory是可自动装配的Bean工厂的抽象实现。
@@ -23,6 +30,15 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
     /** 实例化策略，默认使用 CglibSubclassingInstantiationStrategy */
     private InstantiationStrategy instantiationStrategy = new CglibSubclassingInstantiationStrategy();
 
+    /** 属性注入器，按 Bean 类缓存编译好的字段写入计划 */
+    private final PropertyInjector propertyInjector = new PropertyInjector();
+
+    /** 延迟解析的 BeanReference 使用的代理工厂 */
+    private final LazyResolutionProxyFactory lazyResolutionProxyFactory = new LazyResolutionProxyFactory();
+
+    /** 已解析的构造函数缓存：Bean 类 + 实参类型签名 -> 构造函数 */
+    private final Map<ConstructorCacheKey, Constructor<?>> resolvedConstructorCache = new ConcurrentHashMap<>();
+
     /**
      * 创建指定名称的 Bean 对象。
      *
@@ -34,25 +50,60 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
      */
     @Override
     protected Object createBean(String beanName, BeanDefinition beanDefinition, Object[] args) throws BeansException {
+        // 每个阶段记录为 beans.create 的子步骤，创建过程中依赖的 Bean 嵌套在当前阶段下
+        BeanFactoryMetrics metrics = getBeanFactoryMetrics();
+        long startNanos = metrics != null ? System.nanoTime() : 0;
+        // 嵌套创建的依赖 Bean 的 CPU 时间和分配从当前 Bean 的 self 开销中扣除
+        BeanCreationProfiler profiler = getBeanCreationProfiler();
+        Object profile = profiler != null ? profiler.begin(beanName) : null;
+        ApplicationStartup applicationStartup = getApplicationStartup();
+        StartupStep createStep = applicationStartup.start("beans.create").tag("beanName", beanName);
         Object bean = null;
         try {
-            // 创建 Bean 实例
-            bean = createBeanInstance(beanDefinition, beanName, args);
-            // 填充 Bean 属性
-            applyPropertyValues(beanName, bean, beanDefinition);
-            // 初始化 Bean，并应用 BeanPostProcessor 的前置和后置处理方法
-            bean = initializeBean(beanName, bean, beanDefinition);
-        } catch (Exception e) {
-            throw new BeansException("Instantiation of bean failed", e);
+            // 只给出类名的定义在第一次创建时才加载类
+            resolveBeanClass(beanName, beanDefinition);
+            try {
+                // 创建 Bean 实例
+                StartupStep step = applicationStartup.start("beans.instantiate").tag("beanName", beanName);
+                try {
+                    bean = createBeanInstance(beanDefinition, beanName, args);
+                } finally {
+                    step.end();
+                }
+                // 填充 Bean 属性
+                step = applicationStartup.start("beans.populate").tag("beanName", beanName);
+                try {
+                    applyPropertyValues(beanName, bean, beanDefinition);
+                } finally {
+                    step.end();
+                }
+                // 初始化 Bean，并应用 BeanPostProcessor 的前置和后置处理方法
+                step = applicationStartup.start("beans.initialize").tag("beanName", beanName);
+                try {
+                    bean = initializeBean(beanName, bean, beanDefinition);
+                } finally {
+                    step.end();
+                }
+            } catch (Exception e) {
+                throw new BeansException("Instantiation of bean failed", e);
+            }
+        } finally {
+            createStep.end();
+            if (profiler != null) {
+                profiler.end(profile);
+            }
+        }
+        if (metrics != null) {
+            // 耗时包含创建过程中依赖的 Bean 的创建时间
+            metrics.recordBeanCreation(beanName, System.nanoTime() - startNanos);
         }
 
-        // 将创建的 Bean 添加到单例缓存中
-        addSingleton(beanName, bean);
+        // 单例缓存的注册由 DefaultSingletonBeanRegistry#getSingleton 在创建锁内完成
         return bean;
     }
 
     /**
-     * 创建指定 Bean 定义的实例。
+     * 创建指定 Bean 定义的实例。BeanDefinition 设置了实例提供者且没有构造参数时直接使用提供者。
      *
      * @param beanDefinition Bean 的定义
      * @param beanName       Bean 的名称
@@ -60,18 +111,58 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
      * @return 创建的 Bean 实例
      */
     protected Object createBeanInstance(BeanDefinition beanDefinition, String beanName, Object[] args) {
-        Constructor constructorToUse = null;
-        Class<?> beanClass = beanDefinition.getBeanClass();
-        Constructor<?>[] declaredConstructors = beanClass.getDeclaredConstructors();
-        for (Constructor ctor : declaredConstructors) {
-            if (null != args && ctor.getParameterTypes().length == args.length) {
-                constructorToUse = ctor;
-                break;
+        if (null == args && null != beanDefinition.getInstanceSupplier()) {
+            return beanDefinition.getInstanceSupplier().get();
+        }
+        Constructor<?> constructorToUse = null;
+        if (null != args) {
+            Class<?> beanClass = beanDefinition.getBeanClass();
+            ConstructorCacheKey cacheKey = new ConstructorCacheKey(beanClass, args);
+            constructorToUse = resolvedConstructorCache.get(cacheKey);
+            if (null == constructorToUse) {
+                constructorToUse = resolveConstructor(beanClass, args);
+                resolvedConstructorCache.putIfAbsent(cacheKey, constructorToUse);
             }
         }
         return getInstantiationStrategy().instantiate(beanDefinition, beanName, constructorToUse, args);
     }
 
+    /**
+     * 根据实参的运行时类型查找匹配的构造函数。参数个数相同且每个参数都可赋值时视为匹配，
+     * 多个构造函数都匹配时选择参数类型完全一致最多的那个。
+     *
+     * @param beanClass Bean 的类
+     * @param args      构造函数参数
+     * @return 匹配的构造函数
+     * @throws BeansException 如果没有匹配的构造函数
+     */
+    private Constructor<?> resolveConstructor(Class<?> beanClass, Object[] args) throws BeansException {
+        Constructor<?> bestMatch = null;
+        int bestScore = -1;
+        for (Constructor<?> ctor : beanClass.getDeclaredConstructors()) {
+            Class<?>[] parameterTypes = ctor.getParameterTypes();
+            if (parameterTypes.length != args.length) continue;
+            int score = 0;
+            for (int i = 0; i < args.length && score >= 0; i++) {
+                if (null == args[i]) {
+                    score = parameterTypes[i].isPrimitive() ? -1 : score;
+                } else if (parameterTypes[i] == args[i].getClass()) {
+                    score++;
+                } else if (!ClassUtil.isAssignable(parameterTypes[i], args[i].getClass())) {
+                    score = -1;
+                }
+            }
+            if (score > bestScore) {
+                bestMatch = ctor;
+                bestScore = score;
+            }
+        }
+        if (null == bestMatch) {
+            throw new BeansException("No constructor of [" + beanClass.getName() + "] matches arguments " + Arrays.toString(args));
+        }
+        return bestMatch;
+    }
+
     /**
      * 填充 Bean 的属性值。
      *
@@ -90,13 +181,23 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
                 if (value instanceof BeanReference) {
                     // 如果属性值是 BeanReference，从容器中获取对应 Bean 的实例
                     BeanReference beanReference = (BeanReference) value;
-                    value = getBean(beanReference.getBeanName());
+                    if (beanReference.isLazy()) {
+                        // 延迟解析：注入代理或提供者，被引用的 Bean 在第一次使用时才创建
+                        // 只有 CGLIB 代理需要加载目标类，单例目标才在代理中保存第一次解析的实例
+                        String targetName = beanReference.getBeanName();
+                        BeanDefinition targetDefinition = getBeanDefinition(targetName);
+                        Class<?> propertyType = propertyInjector.getPropertyType(bean.getClass(), name);
+                        value = lazyResolutionProxyFactory.createLazyReference(this, targetName, propertyType,
+                                () -> resolveBeanClass(targetName, targetDefinition), targetDefinition.isSingleton());
+                    } else {
+                        value = getBean(beanReference.getBeanName());
+                    }
                 }
-                // 使用反射给属性赋值
-                BeanUtil.setFieldValue(bean, name, value);
+                // 使用预编译的字段写入器给属性赋值
+                propertyInjector.inject(beanName, bean, name, value);
             }
         } catch (Exception e) {
-            throw new BeansException("Error setting property values: " + beanName);
+            throw new BeansException("Error setting property values: " + beanName, e);
         }
     }
 
@@ -150,7 +251,7 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
     }
 
     /**
-     * 应用 BeanPostProcessor 的 Before 处理。
+     * 应用 BeanPostProcessor 的 Before 处理，只调用适用于该 Bean 类的处理器链。
      *
      * @param existingBean 初始化前的 Bean 对象
      * @param beanName     Bean 的名称
@@ -160,7 +261,7 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
     @Override
     public Object applyBeanPostProcessorsBeforeInitialization(Object existingBean, String beanName) throws BeansException {
         Object result = existingBean;
-        for (BeanPostProcessor processor : getBeanPostProcessors()) {
+        for (BeanPostProcessor processor : getBeanPostProcessorChain(existingBean.getClass())) {
             Object current = processor.postProcessBeforeInitialization(result, beanName);
             if (null == current) {
                 return result;
@@ -171,7 +272,7 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
     }
 
     /**
-     * 应用 BeanPostProcessor 的 After 处理。
+     * 应用 BeanPostProcessor 的 After 处理，处理器链按 Before 处理后的 Bean 类选取。
      *
      * @param existingBean 初始化后的 Bean 对象
      * @param beanName     Bean 的名称
@@ -181,7 +282,7 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
     @Override
     public Object applyBeanPostProcessorsAfterInitialization(Object existingBean, String beanName) throws BeansException {
         Object result = existingBean;
-        for (BeanPostProcessor processor : getBeanPostProcessors()) {
+        for (BeanPostProcessor processor : getBeanPostProcessorChain(existingBean.getClass())) {
             Object current = processor.postProcessAfterInitialization(result, beanName);
             if (null == current) {
                 return result;
@@ -191,5 +292,38 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
         return result;
     }
 
-}
+    /**
+     * 构造函数缓存的键，由 Bean 类和实参的运行时类型组成，null 实参的类型记为 null。
+     */
+    private static final class ConstructorCacheKey {
+
+        private final Class<?> beanClass;
+
+        private final Class<?>[] argTypes;
+
+        private final int hash;
 
+        ConstructorCacheKey(Class<?> beanClass, Object[] args) {
+            this.beanClass = beanClass;
+            this.argTypes = new Class<?>[args.length];
+            for (int i = 0; i < args.length; i++) {
+                argTypes[i] = null == args[i] ? null : args[i].getClass();
+            }
+            this.hash = 31 * beanClass.hashCode() + Arrays.hashCode(argTypes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ConstructorCacheKey)) return false;
+            ConstructorCacheKey that = (ConstructorCacheKey) o;
+            return beanClass == that.beanClass && Arrays.equals(argTypes, that.argTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
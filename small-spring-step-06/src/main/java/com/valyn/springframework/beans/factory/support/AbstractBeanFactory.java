@@ -2,20 +2,60 @@ package com.valyn.springframework.beans.factory.support;
 
 import com.valyn.springframework.beans.BeansException;
 import com.valyn.springframework.beans.factory.BeanFactory;
+import com.valyn.springframework.beans.factory.BeanHandle;
 import com.valyn.springframework.beans.factory.config.BeanDefinition;
 import com.valyn.springframework.beans.factory.config.BeanPostProcessor;
 import com.valyn.springframework.beans.factory.config.ConfigurableBeanFactory;
+import com.valyn.springframework.beans.factory.config.Scope;
+import com.valyn.springframework.beans.factory.config.TargetedBeanPostProcessor;
+import com.valyn.springframework.core.OrderComparator;
+import com.valyn.springframework.core.metrics.ApplicationStartup;
+import com.valyn.springframework.core.metrics.BeanCreationProfiler;
+import com.valyn.springframework.core.metrics.BeanFactoryMetrics;
+import com.valyn.springframework.utils.ClassUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 抽象的 Bean 工厂类，继承了 DefaultSingletonBeanRegistry 类并实现了 ConfigurableBeanFactory 接口。
  */
 public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry implements ConfigurableBeanFactory {
 
-    /** 存储 BeanPostProcessor 对象的列表，用于在创建 Bean 时应用后置处理器 */
-    private final List<BeanPostProcessor> beanPostProcessors = new ArrayList<BeanPostProcessor>();
+    /** 注册 BeanPostProcessor 时使用的锁 */
+    private final Object beanPostProcessorLock = new Object();
+
+    /**
+     * 已注册 BeanPostProcessor 的有序快照，以及按 Bean 类缓存的后置处理器链。
+     * 注册新的处理器时复制数组并整体替换，创建 Bean 的线程读取快照时无需加锁。
+     */
+    private volatile BeanPostProcessorChains beanPostProcessorChains = new BeanPostProcessorChains(new BeanPostProcessor[0]);
+
+    /** 池化作用域的 Bean 池：Bean 名称 -> Bean 池 */
+    private final Map<String, BeanPool> beanPools = new ConcurrentHashMap<>();
+
+    /** 自定义作用域：作用域名称 -> 作用域实现，默认注册线程作用域 */
+    private final Map<String, Scope> scopes = new ConcurrentHashMap<>();
+
+    /** 解析 Bean 类名使用的类加载器 */
+    private volatile ClassLoader beanClassLoader = ClassUtils.getDefaultClassLoader();
+
+    /** 记录 Bean 创建步骤，默认不记录 */
+    private volatile ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
+    /** 运行指标，为 null 时不统计 */
+    private volatile BeanFactoryMetrics beanFactoryMetrics;
+
+    /** Bean 创建开销统计器，为 null 时不统计 */
+    private volatile BeanCreationProfiler beanCreationProfiler;
+
+    public AbstractBeanFactory() {
+        registerScope(SCOPE_THREAD, new ThreadScope());
+    }
 
     /**
      * 根据 Bean 的名称获取对应的 Bean 对象。
@@ -26,11 +66,24 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
      */
     @Override
     public Object getBean(String name) throws BeansException {
+        BeanFactoryMetrics metrics = beanFactoryMetrics;
+        if (metrics != null) {
+            metrics.recordGetBean();
+        }
+        // 单例快速路径：已创建的单例直接返回，不经过 doGetBean，也不分配任何对象
+        Object bean = getSingleton(name);
+        if (bean != null) {
+            if (metrics != null) {
+                metrics.recordSingletonCacheHit();
+            }
+            return bean;
+        }
         return doGetBean(name, null);
     }
 
     /**
      * 根据 Bean 的名称和参数获取对应的 Bean 对象。
+     * 可变参数数组由调用方分配，不需要参数时应使用 getBean(String) 走无分配的单例快速路径。
      *
      * @param name Bean 的名称
      * @param args Bean 的参数
@@ -39,6 +92,10 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
      */
     @Override
     public Object getBean(String name, Object... args) throws BeansException {
+        BeanFactoryMetrics metrics = beanFactoryMetrics;
+        if (metrics != null) {
+            metrics.recordGetBean();
+        }
         return doGetBean(name, args);
     }
 
@@ -53,7 +110,61 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
      */
     @Override
     public <T> T getBean(String name, Class<T> requiredType) throws BeansException {
-        return (T) getBean(name);
+        BeanFactoryMetrics metrics = beanFactoryMetrics;
+        if (metrics != null) {
+            metrics.recordGetBean();
+        }
+        Object bean = getSingleton(name);
+        if (bean == null) {
+            bean = doGetBean(name, null);
+        } else if (metrics != null) {
+            metrics.recordSingletonCacheHit();
+        }
+        if (requiredType != null && !requiredType.isInstance(bean)) {
+            throw beanNotOfRequiredType(name, requiredType, bean);
+        }
+        return (T) bean;
+    }
+
+    /**
+     * 构造类型不匹配的异常。异常消息的拼接放在单独的方法中，保持 getBean 热路径短小、便于内联。
+     *
+     * @param name         Bean 的名称
+     * @param requiredType 目标类型
+     * @param bean         实际的 Bean 对象
+     * @return 异常对象
+     */
+    private BeansException beanNotOfRequiredType(String name, Class<?> requiredType, Object bean) {
+        return new BeansException("Bean named '" + name + "' is expected to be of type '" + requiredType.getName()
+                + "' but was actually of type '" + bean.getClass().getName() + "'");
+    }
+
+    /**
+     * 返回指定名称 Bean 的句柄。
+     *
+     * @param name Bean 的名称
+     * @return 对应的 BeanHandle
+     * @throws BeansException 如果不存在该名称的 Bean
+     */
+    @Override
+    public BeanHandle<Object> getBeanHandle(String name) throws BeansException {
+        return getBeanHandle(name, Object.class);
+    }
+
+    /**
+     * 返回指定名称和类型 Bean 的句柄。
+     *
+     * @param name         Bean 的名称
+     * @param requiredType 目标类型
+     * @param <T>          Bean 的类型参数
+     * @return 对应的 BeanHandle
+     * @throws BeansException 如果不存在该名称的 Bean
+     */
+    @Override
+    public <T> BeanHandle<T> getBeanHandle(String name, Class<T> requiredType) throws BeansException {
+        // 提前校验 BeanDefinition 存在
+        getBeanDefinition(name);
+        return new DefaultBeanHandle<>(name, requiredType);
     }
 
     /**
@@ -65,12 +176,162 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
      * @return 对应的 Bean 对象
      */
     protected <T> T doGetBean(final String name, final Object[] args) {
+        BeanFactoryMetrics metrics = beanFactoryMetrics;
         Object bean = getSingleton(name);
         if (bean != null) {
+            if (metrics != null) {
+                metrics.recordSingletonCacheHit();
+            }
             return (T) bean;
         }
         BeanDefinition beanDefinition = getBeanDefinition(name);
-        return (T) createBean(name, beanDefinition, args);
+        if (beanDefinition.isSingleton()) {
+            if (metrics != null) {
+                metrics.recordSingletonCacheMiss();
+            }
+            // 按 Bean 名称加锁创建，保证并发场景下单例只创建一次
+            return (T) getSingleton(name, () -> createBean(name, beanDefinition, args));
+        }
+        if (beanDefinition.isPooled()) {
+            // 通过 getBean 借出的实例没有归还途径，会逐渐耗尽池，池化 Bean 只能通过 borrowBean/returnBean 使用
+            throw new BeansException("Bean '" + name + "' is pooled; use borrowBean and returnBean instead of getBean");
+        }
+        if (beanDefinition.isPrototype()) {
+            return (T) createBean(name, beanDefinition, args);
+        }
+        Scope scope = scopes.get(beanDefinition.getScope());
+        if (scope == null) {
+            throw new BeansException("No Scope registered for scope name '" + beanDefinition.getScope() + "'");
+        }
+        return (T) scope.get(name, () -> createBean(name, beanDefinition, args));
+    }
+
+    /**
+     * 注册一个自定义作用域，singleton 和 prototype 不能被替换。
+     *
+     * @param scopeName 作用域名称
+     * @param scope     作用域实现
+     */
+    @Override
+    public void registerScope(String scopeName, Scope scope) {
+        if (SCOPE_SINGLETON.equals(scopeName) || SCOPE_PROTOTYPE.equals(scopeName) || SCOPE_POOLED.equals(scopeName)) {
+            throw new IllegalArgumentException("Cannot replace existing scopes 'singleton', 'prototype' and 'pooled'");
+        }
+        scopes.put(scopeName, scope);
+    }
+
+    /**
+     * 获取已注册的自定义作用域。
+     *
+     * @param scopeName 作用域名称
+     * @return 作用域实现，未注册时返回 null
+     */
+    @Override
+    public Scope getRegisteredScope(String scopeName) {
+        return scopes.get(scopeName);
+    }
+
+    /**
+     * 从池化作用域的 Bean 池中借出一个实例。
+     *
+     * @param name Bean 的名称
+     * @return 借出的 Bean 实例
+     * @throws BeansException 如果 Bean 不是池化作用域，或者池中所有实例都已借出
+     */
+    @Override
+    public Object borrowBean(String name) throws BeansException {
+        BeanDefinition beanDefinition = getBeanDefinition(name);
+        if (!beanDefinition.isPooled()) {
+            throw new BeansException("Bean '" + name + "' is not pooled");
+        }
+        return getBeanPool(name, beanDefinition).borrow();
+    }
+
+    /**
+     * 将借出的实例归还到池化作用域的 Bean 池中。
+     *
+     * @param name Bean 的名称
+     * @param bean 借出的 Bean 实例
+     * @throws BeansException 如果 Bean 不是池化作用域，或者实例不是从该池借出的、已经归还过
+     */
+    @Override
+    public void returnBean(String name, Object bean) throws BeansException {
+        BeanDefinition beanDefinition = getBeanDefinition(name);
+        if (!beanDefinition.isPooled()) {
+            throw new BeansException("Bean '" + name + "' is not pooled");
+        }
+        getBeanPool(name, beanDefinition).release(bean);
+    }
+
+    /**
+     * 获取池化作用域 Bean 对应的 Bean 池，不存在时按 BeanDefinition 的池容量创建。
+     *
+     * @param name           Bean 的名称
+     * @param beanDefinition Bean 的定义
+     * @return Bean 池
+     */
+    protected BeanPool getBeanPool(String name, BeanDefinition beanDefinition) {
+        return beanPools.computeIfAbsent(name, beanName ->
+                new BeanPool(beanDefinition.getPoolSize(), () -> createBean(beanName, beanDefinition, null)));
+    }
+
+    @Override
+    public void setBeanClassLoader(ClassLoader beanClassLoader) {
+        this.beanClassLoader = beanClassLoader != null ? beanClassLoader : ClassUtils.getDefaultClassLoader();
+    }
+
+    @Override
+    public ClassLoader getBeanClassLoader() {
+        return beanClassLoader;
+    }
+
+    @Override
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup != null ? applicationStartup : ApplicationStartup.DEFAULT;
+    }
+
+    @Override
+    public ApplicationStartup getApplicationStartup() {
+        return applicationStartup;
+    }
+
+    @Override
+    public void setBeanFactoryMetrics(BeanFactoryMetrics beanFactoryMetrics) {
+        this.beanFactoryMetrics = beanFactoryMetrics;
+    }
+
+    @Override
+    public BeanFactoryMetrics getBeanFactoryMetrics() {
+        return beanFactoryMetrics;
+    }
+
+    @Override
+    public void setBeanCreationProfiler(BeanCreationProfiler beanCreationProfiler) {
+        this.beanCreationProfiler = beanCreationProfiler;
+    }
+
+    @Override
+    public BeanCreationProfiler getBeanCreationProfiler() {
+        return beanCreationProfiler;
+    }
+
+    /**
+     * 解析 BeanDefinition 的类，只给出类名的定义通过 Bean 类加载器加载。
+     *
+     * @param beanName       Bean 的名称
+     * @param beanDefinition Bean 的定义
+     * @return Bean 的类
+     * @throws BeansException 如果找不到类
+     */
+    protected Class<?> resolveBeanClass(String beanName, BeanDefinition beanDefinition) throws BeansException {
+        if (beanDefinition.hasBeanClass()) {
+            return beanDefinition.getBeanClass();
+        }
+        try {
+            return beanDefinition.resolveBeanClass(beanClassLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new BeansException("Cannot find class [" + beanDefinition.getBeanClassName() + "] for bean with name '" + beanName + "'", e);
+        }
     }
 
     /**
@@ -94,24 +355,119 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
     protected abstract Object createBean(String beanName, BeanDefinition beanDefinition, Object[] args) throws BeansException;
 
     /**
-     * 向工厂中添加一个 Bean 后置处理器。
+     * 向工厂中添加一个 Bean 后置处理器。已注册的同一个处理器会移到注册顺序的末尾。
+     * 处理器按 PriorityOrdered、Ordered、其他的顺序排列，同一组内按排序值排列，排序值相同时保持注册顺序。
      *
      * @param beanPostProcessor 要添加的 Bean 后置处理器
      */
     @Override
     public void addBeanPostProcessor(BeanPostProcessor beanPostProcessor) {
-        this.beanPostProcessors.remove(beanPostProcessor);
-        this.beanPostProcessors.add(beanPostProcessor);
+        synchronized (beanPostProcessorLock) {
+            BeanPostProcessor[] current = beanPostProcessorChains.processors;
+            List<BeanPostProcessor> updated = new ArrayList<>(current.length + 1);
+            for (BeanPostProcessor processor : current) {
+                if (!processor.equals(beanPostProcessor)) {
+                    updated.add(processor);
+                }
+            }
+            updated.add(beanPostProcessor);
+            OrderComparator.sort(updated);
+            beanPostProcessorChains = new BeanPostProcessorChains(updated.toArray(new BeanPostProcessor[0]));
+        }
+    }
+
+    /**
+     * 获取适用于指定 Bean 类的后置处理器链，顺序与 getBeanPostProcessors 一致。
+     * 链在每个 Bean 类第一次创建时计算并缓存，之后创建同类 Bean 只调用链中的处理器。
+     *
+     * @param beanClass Bean 的类
+     * @return 后置处理器链，调用方不应修改
+     */
+    protected BeanPostProcessor[] getBeanPostProcessorChain(Class<?> beanClass) {
+        return beanPostProcessorChains.get(beanClass);
     }
 
     /**
-     * 返回应用于该工厂创建的 Bean 的 Bean 后置处理器列表。
+     * 返回应用于该工厂创建的 Bean 的 Bean 后置处理器列表，按执行顺序排列。
      *
-     * @return Bean 后置处理器列表
+     * @return 当前已注册处理器的只读快照
      */
     public List<BeanPostProcessor> getBeanPostProcessors() {
-        return this.beanPostProcessors;
+        return Collections.unmodifiableList(Arrays.asList(beanPostProcessorChains.processors));
     }
 
-}
+    /**
+     * BeanHandle 的默认实现，单例解析后保存在 volatile 字段中。
+     */
+    private final class DefaultBeanHandle<T> implements BeanHandle<T> {
+
+        private final String beanName;
+
+        private final Class<T> requiredType;
+
+        private volatile T singletonInstance;
+
+        DefaultBeanHandle(String beanName, Class<T> requiredType) {
+            this.beanName = beanName;
+            this.requiredType = requiredType;
+        }
 
+        @Override
+        public T get() throws BeansException {
+            T instance = singletonInstance;
+            if (instance != null) {
+                return instance;
+            }
+            instance = getBean(beanName, requiredType);
+            if (getBeanDefinition(beanName).isSingleton()) {
+                singletonInstance = instance;
+            }
+            return instance;
+        }
+
+        @Override
+        public String getBeanName() {
+            return beanName;
+        }
+    }
+
+    /**
+     * 某一组已注册后置处理器的快照，以及按 Bean 类过滤出的处理器链缓存。
+     */
+    private static final class BeanPostProcessorChains {
+
+        private final BeanPostProcessor[] processors;
+
+        private final Map<Class<?>, BeanPostProcessor[]> chains = new ConcurrentHashMap<>();
+
+        BeanPostProcessorChains(BeanPostProcessor[] processors) {
+            this.processors = processors;
+        }
+
+        BeanPostProcessor[] get(Class<?> beanClass) {
+            BeanPostProcessor[] chain = chains.get(beanClass);
+            if (chain == null) {
+                chain = chains.computeIfAbsent(beanClass, this::filter);
+            }
+            return chain;
+        }
+
+        private BeanPostProcessor[] filter(Class<?> beanClass) {
+            List<BeanPostProcessor> chain = new ArrayList<>(processors.length);
+            for (BeanPostProcessor processor : processors) {
+                if (!(processor instanceof TargetedBeanPostProcessor)) {
+                    chain.add(processor);
+                    continue;
+                }
+                for (Class<?> targetType : ((TargetedBeanPostProcessor) processor).getTargetTypes()) {
+                    if (targetType.isAssignableFrom(beanClass)) {
+                        chain.add(processor);
+                        break;
+                    }
+                }
+            }
+            return chain.toArray(new BeanPostProcessor[0]);
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+package com.valyn.springframework.beans.factory.support;
+
+import com.valyn.springframework.beans.BeansException;
+import com.valyn.springframework.beans.factory.ObjectFactory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * BeanPool 是池化作用域使用的有界无锁对象池。
+ *
+ * 池由固定数量的槽位组成，每个槽位的状态保存在 AtomicLongArray 中，只通过 compareAndSet 切换：
+ * 空槽位（EMPTY）、空闲（IDLE，实例存放在 AtomicReferenceArray 的同一下标）、借出（BORROWED，高位记录实例的 identityHashCode），
+ * 以及切换过程中短暂占用的 RESERVED。借出与归还都不分配对象、不加锁。
+ *
+ * 借出的实例只按 identityHashCode 登记，池不持有它的引用，未归还的实例照常可以被垃圾回收，
+ * 但它占用的槽位会一直处于借出状态。归还时只接受与某个借出槽位匹配的实例：重复归还同一个实例，
+ * 或者归还不是从本池借出的实例都会抛出异常（不同对象的 identityHashCode 恰好相同时无法区分）。
+ * 所有槽位都已借出时借出失败，池中的实例数量不会超过容量。
+ */
+public class BeanPool {
+
+    private static final long EMPTY = 0;
+
+    private static final long IDLE = 1;
+
+    private static final long RESERVED = 2;
+
+    private static final long BORROWED = 3;
+
+    private static final int STATE_BITS = 2;
+
+    private static final long STATE_MASK = (1L << STATE_BITS) - 1;
+
+    /** 槽位状态：低两位为状态，借出时高位为实例的 identityHashCode */
+    private final AtomicLongArray slotStates;
+
+    /** 空闲实例，只在槽位处于 IDLE 状态时非空 */
+    private final AtomicReferenceArray<Object> idleInstances;
+
+    private final ObjectFactory<?> objectFactory;
+
+    /**
+     * 创建一个指定容量的 Bean 池。
+     *
+     * @param capacity      池的容量
+     * @param objectFactory 池中没有空闲实例时用于创建实例的工厂
+     */
+    public BeanPool(int capacity, ObjectFactory<?> objectFactory) {
+        this.slotStates = new AtomicLongArray(capacity);
+        this.idleInstances = new AtomicReferenceArray<>(capacity);
+        this.objectFactory = objectFactory;
+    }
+
+    /**
+     * 预先创建实例直到所有空槽位都有空闲实例。
+     */
+    public void prefill() {
+        for (int i = 0; i < slotStates.length(); i++) {
+            if (slotStates.get(i) == EMPTY && slotStates.compareAndSet(i, EMPTY, RESERVED)) {
+                idleInstances.set(i, createInstance(i));
+                slotStates.set(i, IDLE);
+            }
+        }
+    }
+
+    /**
+     * 借出一个空闲实例，没有空闲实例时在空槽位上创建新实例。
+     *
+     * @return Bean 实例
+     * @throws BeansException 如果所有槽位都已借出
+     */
+    public Object borrow() throws BeansException {
+        while (true) {
+            for (int i = 0; i < slotStates.length(); i++) {
+                if (slotStates.get(i) == IDLE && slotStates.compareAndSet(i, IDLE, RESERVED)) {
+                    Object instance = idleInstances.getAndSet(i, null);
+                    slotStates.set(i, borrowedState(instance));
+                    return instance;
+                }
+            }
+            for (int i = 0; i < slotStates.length(); i++) {
+                if (slotStates.get(i) == EMPTY && slotStates.compareAndSet(i, EMPTY, RESERVED)) {
+                    Object instance = createInstance(i);
+                    slotStates.set(i, borrowedState(instance));
+                    return instance;
+                }
+            }
+            // 有槽位正在切换状态时它很快会变为空闲或借出，稍后重试，否则说明所有槽位都已借出
+            if (countSlots(RESERVED) == 0) {
+                throw new BeansException("Pool exhausted: all " + slotStates.length() + " instances are borrowed");
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * 归还一个实例，使其可以再次被借出。
+     *
+     * @param instance Bean 实例
+     * @throws BeansException 如果实例不是从本池借出的，或者已经归还过
+     */
+    public void release(Object instance) throws BeansException {
+        if (instance != null) {
+            long borrowed = borrowedState(instance);
+            for (int i = 0; i < slotStates.length(); i++) {
+                if (slotStates.get(i) == borrowed && slotStates.compareAndSet(i, borrowed, RESERVED)) {
+                    idleInstances.set(i, instance);
+                    slotStates.set(i, IDLE);
+                    return;
+                }
+            }
+        }
+        throw new BeansException("Instance " + (instance != null ? "of [" + instance.getClass().getName() + "] " : "")
+                + "was not borrowed from this pool or has already been returned");
+    }
+
+    /**
+     * 获取已借出、尚未归还的实例数量。
+     *
+     * @return 借出实例数量
+     */
+    public int getBorrowedCount() {
+        return countSlots(BORROWED);
+    }
+
+    /**
+     * 获取池的容量。
+     *
+     * @return 池的容量
+     */
+    public int getCapacity() {
+        return slotStates.length();
+    }
+
+    /**
+     * 获取当前空闲实例的数量。
+     *
+     * @return 空闲实例数量
+     */
+    public int getIdleCount() {
+        return countSlots(IDLE);
+    }
+
+    private Object createInstance(int slot) {
+        try {
+            return objectFactory.getObject();
+        } catch (RuntimeException | Error e) {
+            // 创建失败时释放占用的槽位
+            slotStates.set(slot, EMPTY);
+            throw e;
+        }
+    }
+
+    private int countSlots(long state) {
+        int count = 0;
+        for (int i = 0; i < slotStates.length(); i++) {
+            if ((slotStates.get(i) & STATE_MASK) == state) count++;
+        }
+        return count;
+    }
+
+    private static long borrowedState(Object instance) {
+        return ((long) System.identityHashCode(instance) << STATE_BITS) | BORROWED;
+    }
+
+}
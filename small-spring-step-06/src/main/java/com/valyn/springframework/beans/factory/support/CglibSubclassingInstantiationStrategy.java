@@ -2,42 +2,79 @@ package com.valyn.springframework.beans.factory.support;
 
 import com.valyn.springframework.beans.BeansException;
 import com.valyn.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.cglib.proxy.Callback;
 import org.springframework.cglib.proxy.Enhancer;
 import org.springframework.cglib.proxy.NoOp;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * CglibSubclassingInstantiationStrategy 是一个实现了 InstantiationStrategy 接口的类。
  * 它使用Cglib库来实例化 bean 对象，并进行子类代理。
  *
- * 在 instantiate 方法中，首先创建一个 Enhancer 对象，用于对 bean 类进行增强。
- * 然后设置增强器的父类为 beanDefinition.getBeanClass()，即要创建 bean 对象的类。
+ * 每个 bean 类只通过 Enhancer 生成一次子类（回调类型为 NoOp），生成的子类缓存在 enhancedSubclassCache 中，
+ * 并通过 Enhancer.registerStaticCallbacks 注册共享的 NoOp.INSTANCE 回调。
  *
- * 然后，使用 NoOp 回调对象来设置增强器的回调函数，这里重写了 hashCode 方法并返回 super.hashCode()。
- *
- * 接下来，判断是否存在构造函数 ctor。如果不存在构造函数，则调用 enhancer.create() 来创建 bean 对象。
- * 如果存在构造函数，则调用 enhancer.create(ctor.getParameterTypes(), args) 来创建 bean 对象，并传入参数 args。
- *
- * 最后，返回创建的 bean 对象。
+ * 在 instantiate 方法中，根据 ctor 找到子类上参数类型相同的构造函数（同样缓存），直接调用构造函数创建对象，
+ * 重复创建时不再构建 Enhancer，也不会生成新的类，Metaspace 保持稳定。
  * @author demon
  */
 public class CglibSubclassingInstantiationStrategy implements InstantiationStrategy {
 
+    private static final Callback[] CALLBACKS = new Callback[]{NoOp.INSTANCE};
+
+    /** bean 类 -> Enhancer 生成的子类 */
+    private final Map<Class<?>, Class<?>> enhancedSubclassCache = new ConcurrentHashMap<>();
+
+    /** 子类 -> 无参构造函数 */
+    private final Map<Class<?>, Constructor<?>> defaultConstructorCache = new ConcurrentHashMap<>();
+
+    /** bean 类的构造函数 -> 子类上对应的构造函数 */
+    private final Map<Constructor<?>, Constructor<?>> constructorCache = new ConcurrentHashMap<>();
+
     @Override
     public Object instantiate(BeanDefinition beanDefinition, String beanName, Constructor ctor, Object[] args) throws BeansException {
-        Enhancer enhancer = new Enhancer();
-        enhancer.setSuperclass(beanDefinition.getBeanClass());
-        enhancer.setCallback(new NoOp() {
-            @Override
-            public int hashCode() {
-                return super.hashCode();
+        Class<?> beanClass = beanDefinition.getBeanClass();
+        Class<?> subclass = enhancedSubclassCache.computeIfAbsent(beanClass, this::createEnhancedSubclass);
+        try {
+            if (null == ctor) {
+                return defaultConstructorCache.computeIfAbsent(subclass, this::getDefaultConstructor).newInstance();
             }
-        });
-        if (null == ctor) {
-            return enhancer.create();
+            Constructor<?> enhancedConstructor = constructorCache.get(ctor);
+            if (null == enhancedConstructor || enhancedConstructor.getDeclaringClass() != subclass) {
+                enhancedConstructor = subclass.getDeclaredConstructor(ctor.getParameterTypes());
+                constructorCache.put(ctor, enhancedConstructor);
+            }
+            return enhancedConstructor.newInstance(args);
+        } catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new BeansException("Failed to instantiate [" + beanClass.getName() + "]", e);
+        }
+    }
+
+    /**
+     * 使用 Enhancer 为 bean 类生成子类，并注册共享的静态回调。
+     *
+     * @param beanClass bean 的类
+     * @return 生成的子类
+     */
+    private Class<?> createEnhancedSubclass(Class<?> beanClass) {
+        Enhancer enhancer = new Enhancer();
+        enhancer.setSuperclass(beanClass);
+        enhancer.setCallbackType(NoOp.class);
+        Class<?> subclass = enhancer.createClass();
+        Enhancer.registerStaticCallbacks(subclass, CALLBACKS);
+        return subclass;
+    }
+
+    private Constructor<?> getDefaultConstructor(Class<?> subclass) {
+        try {
+            return subclass.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new BeansException("Failed to instantiate [" + subclass.getSuperclass().getName() + "]", e);
         }
-        return enhancer.create(ctor.getParameterTypes(), args);
     }
 
 }
@@ -45,11 +82,9 @@ public class CglibSubclassingInstantiationStrategy implements InstantiationStrat
 /**
  * CglibSubclassingInstantiationStrategy 是一个实现了 InstantiationStrategy 接口的类，用于使用 Cglib 库来实例化 bean 对象并进行子类代理。
  *
- * 在 instantiate 方法中，首先创建一个 Enhancer 对象，用于对需要创建的 bean 类进行增强。然后通过 enhancer.setSuperclass(beanDefinition.getBeanClass()) 设置增强器的父类为 beanDefinition.getBeanClass()，即要创建 bean 对象的类。
- *
- * 接下来，使用 NoOp 回调对象来设置增强器的回调函数。在这段代码中，重写了 hashCode 方法并返回 super.hashCode()。
+ * 第一次实例化某个 bean 类时，创建一个 Enhancer 对象，设置父类为 beanDefinition.getBeanClass()，回调类型为 NoOp，调用 enhancer.createClass() 生成子类并缓存，然后通过 Enhancer.registerStaticCallbacks 注册 NoOp.INSTANCE 回调。
  *
- * 然后，判断参数 ctor 是否为 null。如果 ctor 为 null，则调用 enhancer.create() 方法来创建 bean 对象。如果 ctor 不为 null，则调用 enhancer.create(ctor.getParameterTypes(), args) 方法来创建 bean 对象，并传入参数 args。
+ * 之后的每次实例化都直接复用缓存的子类：如果 ctor 为 null，则调用子类的无参构造函数；如果 ctor 不为 null，则调用子类上参数类型相同的构造函数，并传入参数 args。
  *
  * 最后，返回创建的 bean 对象。
  *
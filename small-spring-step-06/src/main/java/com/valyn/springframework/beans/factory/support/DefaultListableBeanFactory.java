@@ -1,25 +1,106 @@
 package com.valyn.springframework.beans.factory.support;
 
 import com.valyn.springframework.beans.BeansException;
+import com.valyn.springframework.beans.PropertyValue;
+import com.valyn.springframework.beans.factory.BeanHandle;
 import com.valyn.springframework.beans.factory.ConfigurableListableBeanFactory;
+import com.valyn.springframework.beans.factory.ObjectProvider;
 import com.valyn.springframework.beans.factory.config.BeanDefinition;
+import com.valyn.springframework.beans.factory.config.BeanReference;
 
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * DefaultListableBeanFactory 是一个实现了 BeanDefinitionRegistry 和 ConfigurableListableBeanFactory 接口的默认可列表化 Bean 工厂类。
  * 该类继承了 AbstractAutowireCapableBeanFactory 抽象类，提供了对 BeanDefinition 的注册、获取和操作的功能。
- * 内部使用了一个 HashMap 来存储 BeanDefinition 对象。
+ * BeanDefinition 存放在 ConcurrentHashMap 中，读取不需要加锁；注册时在类型索引 beanNamesByType 上加锁，
+ * 同时维护“类型（包括父类和接口）-> Bean 名称数组”的索引，按类型查找只需访问匹配的 Bean。
+ * Bean 名称按注册顺序保存，getBeanDefinitionNames、冻结后的 Bean ID 以及预实例化都使用这个稳定的顺序。
+ *
+ * 只给出类名的 BeanDefinition 在注册时不加载类，先记在 unindexedBeanNames 中；
+ * 第一次按类型查找（getBeanNamesForType、getBeansOfType、getBean(Class)、getBeanProvider）时统一解析这些类并加入类型索引，
+ * 之后注册的只给出类名的 BeanDefinition 在下一次按类型查找时解析。按名称获取 Bean 不使用类型索引，只在创建该 Bean 时解析它自己的类。
  */
 public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFactory implements BeanDefinitionRegistry, ConfigurableListableBeanFactory {
 
     private Map<String, BeanDefinition> beanDefinitionMap = new ConcurrentHashMap<>();
 
+    /** 按注册顺序排列的 Bean 名称，数组只整体替换，读取无需加锁 */
+    private volatile String[] beanDefinitionNames = new String[0];
+
+    /** 类型索引：类型（包括父类和接口）-> 该类型的 Bean 名称数组，数组只整体替换，读取无需加锁 */
+    private final Map<Class<?>, String[]> beanNamesByType = new ConcurrentHashMap<>();
+
+    /** 类还没有解析、尚未加入类型索引的 Bean 名称 */
+    private final Set<String> unindexedBeanNames = new LinkedHashSet<>();
+
+    /** 是否存在尚未加入类型索引的 Bean，按类型查找时据此决定是否需要加锁解析 */
+    private volatile boolean typeIndexPending;
+
+    /** 冻结配置后的 Bean 名称索引，未冻结时为 null */
+    private volatile FrozenBeanNameIndex frozenBeanNameIndex;
+
+    /** 冻结配置后按 Bean ID 存放的单例对象 */
+    private volatile AtomicReferenceArray<Object> frozenSingletons;
+
+    /** 并行预实例化单例使用的执行器，为 null 时按顺序在当前线程中创建 */
+    private Executor preInstantiationExecutor;
+
     @Override
     public void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) {
-        beanDefinitionMap.put(beanName, beanDefinition);
+        synchronized (beanNamesByType) {
+            if (frozenBeanNameIndex != null) {
+                throw new BeansException("Cannot register bean definition [" + beanName + "]: configuration is frozen");
+            }
+            BeanDefinition existing = beanDefinitionMap.put(beanName, beanDefinition);
+            if (existing != null) {
+                if (!unindexedBeanNames.remove(beanName)) {
+                    removeFromTypeIndex(beanName, existing.getBeanClass());
+                }
+            } else {
+                String[] names = Arrays.copyOf(beanDefinitionNames, beanDefinitionNames.length + 1);
+                names[names.length - 1] = beanName;
+                beanDefinitionNames = names;
+            }
+            if (beanDefinition.hasBeanClass()) {
+                addToTypeIndex(beanName, beanDefinition.getBeanClass());
+            } else {
+                unindexedBeanNames.add(beanName);
+                typeIndexPending = true;
+            }
+        }
+    }
+
+    /**
+     * 解析所有只给出类名的 BeanDefinition，并把它们加入类型索引。
+     *
+     * @throws BeansException 如果找不到某个 Bean 的类
+     */
+    private void resolveUnindexedBeanClasses() throws BeansException {
+        if (!typeIndexPending) return;
+        synchronized (beanNamesByType) {
+            for (Iterator<String> it = unindexedBeanNames.iterator(); it.hasNext(); ) {
+                String beanName = it.next();
+                addToTypeIndex(beanName, resolveBeanClass(beanName, beanDefinitionMap.get(beanName)));
+                it.remove();
+            }
+            typeIndexPending = false;
+        }
     }
 
     @Override
@@ -29,19 +110,166 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
     @Override
     public <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException {
-        Map<String, T> result = new HashMap<>();
-        beanDefinitionMap.forEach((beanName, beanDefinition) -> {
-            Class beanClass = beanDefinition.getBeanClass();
-            if (type.isAssignableFrom(beanClass)) {
-                result.put(beanName, (T) getBean(beanName));
-            }
-        });
+        String[] beanNames = getBeanNamesForType(type);
+        Map<String, T> result = new LinkedHashMap<>(beanNames.length * 2);
+        for (String beanName : beanNames) {
+            // 池化 Bean 的实例需要借出和归还，不包含在结果中
+            if (getBeanDefinition(beanName).isPooled()) continue;
+            result.put(beanName, (T) getBean(beanName));
+        }
         return result;
     }
 
+    @Override
+    public String[] getBeanNamesForType(Class<?> type) {
+        resolveUnindexedBeanClasses();
+        String[] beanNames = beanNamesByType.get(type);
+        return beanNames != null ? beanNames.clone() : new String[0];
+    }
+
+    /**
+     * 根据类型获取唯一匹配的 Bean，候选名称直接从类型索引中读取，索引在注册 BeanDefinition 时同步更新。
+     *
+     * @param requiredType 目标类型
+     * @param <T>          目标类型的泛型
+     * @return 对应的 Bean 对象
+     * @throws BeansException 如果没有匹配的 Bean 或匹配的 Bean 不止一个
+     */
+    @Override
+    public <T> T getBean(Class<T> requiredType) throws BeansException {
+        String beanName = resolveUniqueBeanName(requiredType, true);
+        return getBean(beanName, requiredType);
+    }
+
+    /**
+     * 返回指定类型 Bean 的提供者。配置冻结后，解析出的 Bean 句柄会被缓存，单例之后直接通过句柄字段访问；
+     * 未冻结时每次都从类型索引重新解析候选，以反映新注册的 BeanDefinition。
+     *
+     * @param requiredType 目标类型
+     * @param <T>          目标类型的泛型
+     * @return 对应的 ObjectProvider
+     */
+    @Override
+    public <T> ObjectProvider<T> getBeanProvider(Class<T> requiredType) {
+        return new ObjectProvider<T>() {
+
+            private volatile BeanHandle<T> handle;
+
+            @Override
+            public T getObject() throws BeansException {
+                T bean = getIfAvailable();
+                if (bean == null) {
+                    throw new BeansException("No qualifying bean of type '" + requiredType.getName() + "' available");
+                }
+                return bean;
+            }
+
+            @Override
+            public T getIfAvailable() throws BeansException {
+                BeanHandle<T> cached = handle;
+                if (cached != null) {
+                    return cached.get();
+                }
+                String beanName = resolveUniqueBeanName(requiredType, false);
+                if (beanName == null) {
+                    return null;
+                }
+                BeanHandle<T> resolved = getBeanHandle(beanName, requiredType);
+                if (isConfigurationFrozen()) {
+                    handle = resolved;
+                }
+                return resolved.get();
+            }
+        };
+    }
+
+    /**
+     * 从类型索引中解析唯一的候选 Bean 名称。
+     *
+     * @param requiredType 目标类型
+     * @param required     没有候选时是否抛出异常
+     * @return 候选 Bean 名称，没有候选且 required 为 false 时返回 null
+     * @throws BeansException 如果候选不止一个，或没有候选且 required 为 true
+     */
+    private String resolveUniqueBeanName(Class<?> requiredType, boolean required) throws BeansException {
+        resolveUnindexedBeanClasses();
+        String[] beanNames = beanNamesByType.get(requiredType);
+        if (beanNames == null) {
+            if (required) {
+                throw new BeansException("No qualifying bean of type '" + requiredType.getName() + "' available");
+            }
+            return null;
+        }
+        if (beanNames.length > 1) {
+            throw new BeansException("No qualifying bean of type '" + requiredType.getName()
+                    + "' available: expected single matching bean but found " + beanNames.length + ": " + String.join(",", beanNames));
+        }
+        return beanNames[0];
+    }
+
+    /**
+     * 将 Bean 名称加入其类型以及所有父类、接口的索引中。
+     *
+     * @param beanName  Bean 的名称
+     * @param beanClass Bean 的类
+     */
+    private void addToTypeIndex(String beanName, Class<?> beanClass) {
+        for (Class<?> type : getTypeHierarchy(beanClass)) {
+            String[] beanNames = beanNamesByType.get(type);
+            if (beanNames == null) {
+                beanNamesByType.put(type, new String[]{beanName});
+            } else if (!Arrays.asList(beanNames).contains(beanName)) {
+                String[] updated = Arrays.copyOf(beanNames, beanNames.length + 1);
+                updated[beanNames.length] = beanName;
+                beanNamesByType.put(type, updated);
+            }
+        }
+    }
+
+    /**
+     * 将 Bean 名称从其类型以及所有父类、接口的索引中移除。
+     *
+     * @param beanName  Bean 的名称
+     * @param beanClass Bean 的类
+     */
+    private void removeFromTypeIndex(String beanName, Class<?> beanClass) {
+        for (Class<?> type : getTypeHierarchy(beanClass)) {
+            String[] beanNames = beanNamesByType.get(type);
+            if (beanNames == null) continue;
+            List<String> updated = new ArrayList<>(Arrays.asList(beanNames));
+            updated.remove(beanName);
+            if (updated.isEmpty()) {
+                beanNamesByType.remove(type);
+            } else {
+                beanNamesByType.put(type, updated.toArray(new String[0]));
+            }
+        }
+    }
+
+    /**
+     * 收集类本身、所有父类以及所有直接或间接实现的接口。
+     *
+     * @param beanClass Bean 的类
+     * @return 类型集合
+     */
+    private Set<Class<?>> getTypeHierarchy(Class<?> beanClass) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        for (Class<?> clazz = beanClass; clazz != null; clazz = clazz.getSuperclass()) {
+            collectInterfaces(clazz, types);
+        }
+        return types;
+    }
+
+    private void collectInterfaces(Class<?> type, Set<Class<?>> types) {
+        if (!types.add(type)) return;
+        for (Class<?> ifc : type.getInterfaces()) {
+            collectInterfaces(ifc, types);
+        }
+    }
+
     @Override
     public String[] getBeanDefinitionNames() {
-        return beanDefinitionMap.keySet().toArray(new String[0]);
+        return beanDefinitionNames.clone();
     }
 
     @Override
@@ -51,9 +279,191 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         return beanDefinition;
     }
 
+    /**
+     * 冻结配置：为每个 BeanDefinition 分配连续的整数 ID，建立不可变的名称索引，单例改为按 ID 存放在数组中。
+     * 冻结后 getSingleton 的查找不加锁、不分配对象，再注册 BeanDefinition 会抛出异常。
+     */
+    @Override
+    public void freezeConfiguration() {
+        synchronized (beanNamesByType) {
+            if (frozenBeanNameIndex != null) return;
+            FrozenBeanNameIndex index = new FrozenBeanNameIndex(getBeanDefinitionNames());
+            AtomicReferenceArray<Object> singletons = new AtomicReferenceArray<>(index.size());
+            for (int id = 0; id < index.size(); id++) {
+                singletons.set(id, super.getSingleton(index.nameOf(id)));
+            }
+            this.frozenSingletons = singletons;
+            this.frozenBeanNameIndex = index;
+        }
+    }
+
+    @Override
+    public boolean isConfigurationFrozen() {
+        return frozenBeanNameIndex != null;
+    }
+
+    @Override
+    public Object getSingleton(String beanName) {
+        FrozenBeanNameIndex index = frozenBeanNameIndex;
+        if (index != null) {
+            int id = index.idOf(beanName);
+            if (id >= 0) {
+                Object singletonObject = frozenSingletons.get(id);
+                if (singletonObject != null) {
+                    return singletonObject;
+                }
+            }
+        }
+        return super.getSingleton(beanName);
+    }
+
+    @Override
+    protected void addSingleton(String beanName, Object singletonObject) {
+        super.addSingleton(beanName, singletonObject);
+        FrozenBeanNameIndex index = frozenBeanNameIndex;
+        if (index != null) {
+            int id = index.idOf(beanName);
+            if (id >= 0) {
+                frozenSingletons.set(id, singletonObject);
+            }
+        }
+    }
+
     @Override
     public void preInstantiateSingletons() throws BeansException {
-        beanDefinitionMap.keySet().forEach(this::getBean);
+        if (preInstantiationExecutor == null) {
+            for (String beanName : beanDefinitionNames) {
+                BeanDefinition beanDefinition = beanDefinitionMap.get(beanName);
+                if (beanDefinition.isSingleton() && !beanDefinition.isLazyInit()) {
+                    getBean(beanName);
+                }
+            }
+        } else {
+            preInstantiateSingletonsInParallel(preInstantiationExecutor);
+        }
+        // 池化作用域的 Bean 预先填满对象池
+        for (String beanName : beanDefinitionNames) {
+            BeanDefinition beanDefinition = beanDefinitionMap.get(beanName);
+            if (beanDefinition.isPooled()) {
+                getBeanPool(beanName, beanDefinition).prefill();
+            }
+        }
+    }
+
+    /**
+     * 设置并行预实例化单例使用的执行器，例如 ForkJoinPool.commonPool()。
+     * 设置为 null 时恢复为单线程顺序预实例化。
+     *
+     * @param preInstantiationExecutor 执行器
+     */
+    public void setPreInstantiationExecutor(Executor preInstantiationExecutor) {
+        this.preInstantiationExecutor = preInstantiationExecutor;
+    }
+
+    /**
+     * 获取并行预实例化单例使用的执行器。
+     *
+     * @return 执行器，未开启并行模式时返回 null
+     */
+    public Executor getPreInstantiationExecutor() {
+        return preInstantiationExecutor;
+    }
+
+    /**
+     * 根据 BeanReference 构建依赖图，按拓扑顺序在执行器上并行创建单例：
+     * 每个 Bean 在其依赖全部创建完成后才提交，互不依赖的 Bean 同时创建。
+     *
+     * @param executor 执行器
+     * @throws BeansException 如果存在循环依赖或任意 Bean 创建失败
+     */
+    private void preInstantiateSingletonsInParallel(Executor executor) throws BeansException {
+        Map<String, List<String>> dependencies = resolveDependencyGraph();
+        Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        for (String beanName : sortByDependencies(dependencies)) {
+            List<String> dependsOn = dependencies.get(beanName);
+            CompletableFuture<?>[] dependencyFutures = new CompletableFuture<?>[dependsOn.size()];
+            for (int i = 0; i < dependsOn.size(); i++) {
+                dependencyFutures[i] = futures.get(dependsOn.get(i));
+            }
+            futures.put(beanName, CompletableFuture.allOf(dependencyFutures).thenRunAsync(() -> getBean(beanName), executor));
+        }
+        try {
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof BeansException) {
+                throw (BeansException) e.getCause();
+            }
+            throw new BeansException("Parallel pre-instantiation of singletons failed", e.getCause());
+        }
+    }
+
+    /**
+     * 从属性值中的 BeanReference 解析出每个需要预实例化的单例 Bean 依赖的其他单例 Bean，
+     * 未定义的引用、延迟解析的引用以及非单例或延迟初始化的 Bean 会被忽略，交给 getBean 处理。
+     *
+     * @return Bean 名称 -> 依赖的 Bean 名称列表
+     */
+    private Map<String, List<String>> resolveDependencyGraph() {
+        Map<String, List<String>> dependencies = new LinkedHashMap<>();
+        for (String beanName : beanDefinitionNames) {
+            BeanDefinition beanDefinition = beanDefinitionMap.get(beanName);
+            if (!beanDefinition.isSingleton() || beanDefinition.isLazyInit()) continue;
+            List<String> dependsOn = new ArrayList<>();
+            for (PropertyValue propertyValue : beanDefinition.getPropertyValues().getPropertyValues()) {
+                Object value = propertyValue.getValue();
+                if (value instanceof BeanReference && !((BeanReference) value).isLazy()) {
+                    String refName = ((BeanReference) value).getBeanName();
+                    BeanDefinition refDefinition = beanDefinitionMap.get(refName);
+                    if (refDefinition != null && refDefinition.isSingleton() && !refDefinition.isLazyInit() && !dependsOn.contains(refName)) {
+                        dependsOn.add(refName);
+                    }
+                }
+            }
+            dependencies.put(beanName, dependsOn);
+        }
+        return dependencies;
+    }
+
+    /**
+     * 对依赖图进行拓扑排序，保证每个 Bean 排在它所依赖的 Bean 之后。
+     * 使用显式栈做深度优先遍历，依赖链再长也不会栈溢出；排序结果与按注册顺序递归遍历相同。
+     *
+     * @param dependencies 依赖图
+     * @return 排序后的 Bean 名称列表
+     * @throws BeansException 如果存在循环依赖
+     */
+    private List<String> sortByDependencies(Map<String, List<String>> dependencies) throws BeansException {
+        List<String> sorted = new ArrayList<>(dependencies.size());
+        Set<String> visited = new HashSet<>();
+        Set<String> visiting = new HashSet<>();
+        // 遍历路径上的 Bean 名称，以及每个 Bean 尚未访问的依赖
+        Deque<String> path = new ArrayDeque<>();
+        Deque<Iterator<String>> pendingDependencies = new ArrayDeque<>();
+        for (String root : dependencies.keySet()) {
+            if (visited.contains(root)) continue;
+            visiting.add(root);
+            path.push(root);
+            pendingDependencies.push(dependencies.get(root).iterator());
+            while (!path.isEmpty()) {
+                Iterator<String> dependsOn = pendingDependencies.peek();
+                if (dependsOn.hasNext()) {
+                    String next = dependsOn.next();
+                    if (visited.contains(next)) continue;
+                    if (!visiting.add(next)) {
+                        throw new BeansException("Circular reference involving bean '" + next + "'");
+                    }
+                    path.push(next);
+                    pendingDependencies.push(dependencies.get(next).iterator());
+                } else {
+                    String beanName = path.pop();
+                    pendingDependencies.pop();
+                    visiting.remove(beanName);
+                    visited.add(beanName);
+                    sorted.add(beanName);
+                }
+            }
+        }
+        return sorted;
     }
 
 }
@@ -1,13 +1,39 @@
 package com.valyn.springframework.beans.factory.support;
 
+import com.valyn.springframework.beans.BeansException;
+import com.valyn.springframework.beans.factory.ObjectFactory;
 import com.valyn.springframework.beans.factory.config.SingletonBeanRegistry;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * DefaultSingletonBeanRegistry 是单例注册表的默认实现。
+ *
+ * 单例缓存使用 ConcurrentHashMap，预热后的查找不需要加锁；
+ * 创建单例时只登记当前 Bean 名称的创建记录，保证同一个单例只被创建一次，
+ * 不相关的 Bean 可以在多个线程中并行创建。创建完成后记录随即删除，不会随 Bean 名称数量增长。
+ *
+ * 其他线程请求正在创建的单例时等待创建完成。等待期间沿着“线程等待的 Bean -> 创建该 Bean 的线程”检查，
+ * 如果最终回到当前线程，说明循环依赖分布在多个线程上（例如线程 1 创建 A 时需要 B，线程 2 创建 B 时需要 A），
+ * 此时与单线程的循环依赖一样抛出 BeansException，而不是互相等待。
+ * 等待关系保存在 ConcurrentHashMap 中，登记和检查都不加全局锁。
+ */
 public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
 
-    private Map<String, Object> singletonObjects = new HashMap<>();
+    /** 等待其他线程创建单例时重新检查跨线程循环依赖的间隔 */
+    private static final long CIRCULAR_REFERENCE_CHECK_INTERVAL_MILLIS = 50;
+
+    /** 单例对象缓存：Bean 名称 -> Bean 实例 */
+    private final Map<String, Object> singletonObjects = new ConcurrentHashMap<>();
+
+    /** 正在创建中的单例：Bean 名称 -> 创建记录 */
+    private final Map<String, SingletonCreation> singletonsCurrentlyInCreation = new ConcurrentHashMap<>();
+
+    /** 正在等待其他线程创建单例的线程：线程 -> 等待的 Bean 名称 */
+    private final Map<Thread, String> waitingThreads = new ConcurrentHashMap<>();
 
     /**
      * 根据 Bean 的名称获取对应的单例对象。
@@ -20,6 +46,94 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
         return singletonObjects.get(beanName);
     }
 
+    /**
+     * 根据 Bean 的名称获取对应的单例对象，如果不存在则通过 singletonFactory 创建并注册。
+     * 同一个名称的创建过程是互斥的，不同名称之间互不阻塞。
+     *
+     * @param beanName         Bean 的名称
+     * @param singletonFactory 用于创建单例对象的工厂
+     * @return 对应的单例对象
+     * @throws BeansException 如果创建单例失败或存在循环依赖
+     */
+    public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) throws BeansException {
+        while (true) {
+            Object singletonObject = singletonObjects.get(beanName);
+            if (singletonObject != null) {
+                return singletonObject;
+            }
+            SingletonCreation creation = new SingletonCreation();
+            SingletonCreation existing = singletonsCurrentlyInCreation.putIfAbsent(beanName, creation);
+            if (existing == null) {
+                try {
+                    // 双重检查：登记创建记录之前其他线程可能刚刚创建完成
+                    singletonObject = singletonObjects.get(beanName);
+                    if (singletonObject == null) {
+                        singletonObject = singletonFactory.getObject();
+                        addSingleton(beanName, singletonObject);
+                    }
+                    return singletonObject;
+                } finally {
+                    singletonsCurrentlyInCreation.remove(beanName);
+                    creation.finished.countDown();
+                }
+            }
+            // 当前线程在创建过程中再次请求了自身
+            if (existing.thread == Thread.currentThread()) {
+                throw new BeansException("Requested bean is currently in creation: " + beanName);
+            }
+            // 等待其他线程创建完成后重新检查，创建失败时由当前线程重试
+            awaitSingletonCreation(beanName, existing);
+        }
+    }
+
+    /**
+     * 等待其他线程完成单例的创建，等待会形成跨线程的循环时抛出异常。
+     *
+     * 先登记等待关系再沿等待链检查，两个线程同时开始互相等待时至少有一方能看到对方的登记。
+     * 等待链的读取不加锁，读到的可能是稍旧的状态，因此按固定间隔等待并在每次醒来时重新检查。
+     *
+     * @param beanName Bean 的名称
+     * @param creation 其他线程的创建记录
+     * @throws BeansException 如果存在跨线程的循环依赖或等待被中断
+     */
+    private void awaitSingletonCreation(String beanName, SingletonCreation creation) throws BeansException {
+        Thread currentThread = Thread.currentThread();
+        waitingThreads.put(currentThread, beanName);
+        try {
+            do {
+                if (leadsToThread(creation.thread, currentThread)) {
+                    throw new BeansException("Requested bean is currently in creation: " + beanName
+                            + " (circular reference between threads)");
+                }
+            } while (!creation.finished.await(CIRCULAR_REFERENCE_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            currentThread.interrupt();
+            throw new BeansException("Interrupted while waiting for singleton creation: " + beanName, e);
+        } finally {
+            waitingThreads.remove(currentThread);
+        }
+    }
+
+    /**
+     * 沿“线程等待的 Bean -> 创建该 Bean 的线程”检查从 owner 出发能否回到 target。
+     * 其他线程之间的等待关系可能正在变化，最多走过等待线程数量加一步。
+     *
+     * @param owner  创建目标 Bean 的线程
+     * @param target 当前线程
+     * @return 如果等待链回到当前线程则返回 true
+     */
+    private boolean leadsToThread(Thread owner, Thread target) {
+        for (int hops = waitingThreads.size(); owner != null && hops >= 0; hops--) {
+            if (owner == target) {
+                return true;
+            }
+            String awaitedBeanName = waitingThreads.get(owner);
+            SingletonCreation awaited = awaitedBeanName != null ? singletonsCurrentlyInCreation.get(awaitedBeanName) : null;
+            owner = awaited != null ? awaited.thread : null;
+        }
+        return false;
+    }
+
     /**
      * 将指定的单例对象添加到单例对象集合中。
      *
@@ -30,4 +144,25 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
         singletonObjects.put(beanName, singletonObject);
     }
 
+    /**
+     * 判断指定名称的单例是否正在创建中。
+     *
+     * @param beanName Bean 的名称
+     * @return 如果正在创建中则返回 true
+     */
+    public boolean isSingletonCurrentlyInCreation(String beanName) {
+        return singletonsCurrentlyInCreation.containsKey(beanName);
+    }
+
+    /**
+     * 一次单例创建的记录：创建线程，以及创建结束（成功或失败）的信号。
+     */
+    private static final class SingletonCreation {
+
+        private final Thread thread = Thread.currentThread();
+
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+    }
+
 }
@@ -0,0 +1,75 @@
+package com.valyn.springframework.beans.factory.support;
+
+import java.util.Arrays;
+
+/**
+ * FrozenBeanNameIndex 是冻结配置后使用的不可变 Bean 名称索引。
+ *
+ * 每个 Bean 名称按注册顺序分配一个从 0 开始的连续整数 ID，名称到 ID 的映射保存在一个开放寻址的 int 数组中，
+ * 负载因子不超过 0.5。查找只使用 String 自身缓存的 hashCode 和数组访问，不加锁也不分配对象。
+ */
+final class FrozenBeanNameIndex {
+
+    private final String[] beanNames;
+
+    private final int[] slots;
+
+    private final int mask;
+
+    FrozenBeanNameIndex(String[] beanNames) {
+        this.beanNames = beanNames.clone();
+        int capacity = Integer.highestOneBit(Math.max(2, beanNames.length * 2 - 1)) << 1;
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(slots, -1);
+        for (int id = 0; id < beanNames.length; id++) {
+            int slot = spread(beanNames[id].hashCode()) & mask;
+            while (slots[slot] != -1) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id;
+        }
+    }
+
+    /**
+     * 获取 Bean 名称对应的 ID。
+     *
+     * @param beanName Bean 的名称
+     * @return ID，不存在时返回 -1
+     */
+    int idOf(String beanName) {
+        int slot = spread(beanName.hashCode()) & mask;
+        int id;
+        while ((id = slots[slot]) != -1) {
+            if (beanNames[id].equals(beanName)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * 获取 ID 对应的 Bean 名称。
+     *
+     * @param id Bean 的 ID
+     * @return Bean 的名称
+     */
+    String nameOf(int id) {
+        return beanNames[id];
+    }
+
+    /**
+     * 获取索引中的 Bean 数量。
+     *
+     * @return Bean 数量
+     */
+    int size() {
+        return beanNames.length;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+}
@@ -0,0 +1,181 @@
+package com.valyn.springframework.beans.factory.support;
+
+import com.valyn.springframework.beans.BeansException;
+import com.valyn.springframework.beans.factory.BeanFactory;
+import com.valyn.springframework.beans.factory.BeanHandle;
+import com.valyn.springframework.beans.factory.ObjectFactory;
+import com.valyn.springframework.beans.factory.ObjectProvider;
+import org.springframework.cglib.proxy.Enhancer;
+import org.springframework.cglib.proxy.Factory;
+import org.springframework.cglib.proxy.MethodInterceptor;
+import org.springframework.objenesis.Objenesis;
+import org.springframework.objenesis.ObjenesisStd;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * LazyResolutionProxyFactory 为延迟解析的 BeanReference 创建注入对象，被引用的 Bean 在第一次使用时才创建：
+ *
+ * - 字段类型为 ObjectFactory、ObjectProvider 或 BeanHandle 时，注入一个提供者，调用时才获取 Bean；
+ * - 字段类型为接口时，注入一个 JDK 动态代理；
+ * - 其他情况注入一个 CGLIB 子类代理，代理对象通过 Objenesis 创建，不会执行目标类的构造函数。
+ *
+ * 只有 CGLIB 代理需要被引用 Bean 的类，其他情况不会加载目标类。
+ * 目标是单例时，代理在第一次方法调用时通过 BeanFactory 解析目标 Bean 并保存下来，之后的调用直接转发给目标；
+ * 其他作用域的目标每次调用都重新通过 BeanFactory 获取，不会固定在某一个实例上。
+ *
+ * 代理的 equals 和 hashCode 按代理对象本身的标识计算，toString 在目标创建之前返回占位描述，
+ * 因此打印注入的字段、把持有代理的 Bean 放进 HashSet 或 HashMap 都不会提前创建目标 Bean。
+ */
+public class LazyResolutionProxyFactory {
+
+    private final Objenesis objenesis = new ObjenesisStd(true);
+
+    /** 目标类 -> CGLIB 生成的代理类 */
+    private final Map<Class<?>, Class<?>> proxyClassCache = new ConcurrentHashMap<>();
+
+    /**
+     * 创建延迟解析的注入对象。
+     *
+     * @param beanFactory         用于解析目标 Bean 的 BeanFactory
+     * @param beanName            被引用的 Bean 名称
+     * @param propertyType        注入字段的类型
+     * @param targetClassResolver 解析被引用 Bean 的类，只在需要创建 CGLIB 代理时调用
+     * @param singletonTarget     被引用的 Bean 是否为单例，是单例时代理保存第一次解析的目标
+     * @return 提供者或代理对象
+     * @throws BeansException 如果无法为该类型创建代理
+     */
+    public Object createLazyReference(BeanFactory beanFactory, String beanName, Class<?> propertyType,
+                                      Supplier<Class<?>> targetClassResolver, boolean singletonTarget) throws BeansException {
+        if (propertyType == BeanHandle.class) {
+            return beanFactory.getBeanHandle(beanName);
+        }
+        if (propertyType == ObjectFactory.class || propertyType == ObjectProvider.class) {
+            BeanHandle<Object> handle = beanFactory.getBeanHandle(beanName);
+            return new ObjectProvider<Object>() {
+                @Override
+                public Object getObject() throws BeansException {
+                    return handle.get();
+                }
+
+                @Override
+                public Object getIfAvailable() throws BeansException {
+                    return handle.get();
+                }
+            };
+        }
+        LazyTarget lazyTarget = new LazyTarget(beanFactory, beanName, singletonTarget);
+        if (propertyType.isInterface()) {
+            return Proxy.newProxyInstance(propertyType.getClassLoader(), new Class<?>[]{propertyType}, (proxy, method, args) -> {
+                if (isObjectMethod(method)) {
+                    return invokeObjectMethod(proxy, method, args, lazyTarget);
+                }
+                try {
+                    return method.invoke(lazyTarget.get(), args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            });
+        }
+        Class<?> targetClass = targetClassResolver.get();
+        if (Modifier.isFinal(targetClass.getModifiers())) {
+            throw new BeansException("Cannot create lazy resolution proxy for final class [" + targetClass.getName() + "]");
+        }
+        Class<?> proxyClass = proxyClassCache.computeIfAbsent(targetClass, this::createProxyClass);
+        Factory proxy = (Factory) objenesis.newInstance(proxyClass);
+        proxy.setCallback(0, (MethodInterceptor) (obj, method, args, methodProxy) -> isObjectMethod(method)
+                ? invokeObjectMethod(obj, method, args, lazyTarget)
+                : methodProxy.invoke(lazyTarget.get(), args));
+        return proxy;
+    }
+
+    /**
+     * 判断方法是否为 equals、hashCode 或 toString，这些方法不转发给目标，避免提前创建目标 Bean。
+     *
+     * @param method 被调用的方法
+     * @return 如果是这三个方法之一则返回 true
+     */
+    private static boolean isObjectMethod(Method method) {
+        switch (method.getName()) {
+            case "equals":
+                return method.getParameterCount() == 1 && method.getParameterTypes()[0] == Object.class;
+            case "hashCode":
+            case "toString":
+                return method.getParameterCount() == 0;
+            default:
+                return false;
+        }
+    }
+
+    private static Object invokeObjectMethod(Object proxy, Method method, Object[] args, LazyTarget lazyTarget) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return lazyTarget.toString();
+        }
+    }
+
+    private Class<?> createProxyClass(Class<?> targetClass) {
+        Enhancer enhancer = new Enhancer();
+        enhancer.setSuperclass(targetClass);
+        enhancer.setCallbackTypes(new Class<?>[]{MethodInterceptor.class});
+        enhancer.setUseFactory(true);
+        return enhancer.createClass();
+    }
+
+    /**
+     * 延迟解析的目标 Bean。单例目标第一次访问时从 BeanFactory 获取并保存，其他作用域每次访问都重新获取。
+     */
+    private static final class LazyTarget {
+
+        private final BeanFactory beanFactory;
+
+        private final String beanName;
+
+        private final boolean cacheable;
+
+        private volatile Object target;
+
+        LazyTarget(BeanFactory beanFactory, String beanName, boolean cacheable) {
+            this.beanFactory = beanFactory;
+            this.beanName = beanName;
+            this.cacheable = cacheable;
+        }
+
+        Object get() {
+            if (!cacheable) {
+                return beanFactory.getBean(beanName);
+            }
+            Object result = target;
+            if (result == null) {
+                synchronized (this) {
+                    result = target;
+                    if (result == null) {
+                        result = beanFactory.getBean(beanName);
+                        target = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * 目标已创建时返回目标的描述，否则返回占位描述，不会触发目标的创建。
+         */
+        @Override
+        public String toString() {
+            Object result = target;
+            return result != null ? result.toString() : "Lazy resolution proxy for bean '" + beanName + "'";
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.valyn.springframework.beans.factory.support;
+
+import com.valyn.springframework.beans.BeansException;
+import com.valyn.springframework.beans.factory.config.BeanDefinition;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * MethodHandleInstantiationStrategy 是一个实现了 InstantiationStrategy 接口的类。
+ * 它为每个构造函数只生成一次实例化函数，之后的实例化直接调用该函数，不再进行反射查找，也不生成 CGLIB 子类。
+ *
+ * 对于公共类的公共无参构造函数，使用 LambdaMetafactory 生成一个 Supplier，调用开销接近直接 new；
+ * 其他构造函数使用 MethodHandle，并把参数数组展开为构造函数的参数。
+ *
+ * 可以通过 AbstractAutowireCapableBeanFactory#setInstantiationStrategy 选择该策略。
+ * @author demon
+ */
+public class MethodHandleInstantiationStrategy implements InstantiationStrategy {
+
+    private static final MethodType INSTANTIATOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    /** bean 类 -> 无参构造函数的实例化函数 */
+    private final Map<Class<?>, Function<Object[], Object>> defaultInstantiators = new ConcurrentHashMap<>();
+
+    /** 构造函数 -> 实例化函数 */
+    private final Map<Constructor<?>, Function<Object[], Object>> instantiators = new ConcurrentHashMap<>();
+
+    @Override
+    public Object instantiate(BeanDefinition beanDefinition, String beanName, Constructor ctor, Object[] args) throws BeansException {
+        Class<?> clazz = beanDefinition.getBeanClass();
+        Function<Object[], Object> instantiator;
+        if (null == ctor) {
+            instantiator = defaultInstantiators.computeIfAbsent(clazz, this::createDefaultInstantiator);
+        } else {
+            instantiator = instantiators.computeIfAbsent(ctor, this::createInstantiator);
+        }
+        try {
+            return instantiator.apply(args);
+        } catch (BeansException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new BeansException("Failed to instantiate [" + clazz.getName() + "]", e);
+        }
+    }
+
+    /**
+     * 为 bean 类的无参构造函数生成实例化函数，能用 LambdaMetafactory 时生成 Supplier，否则退回 MethodHandle。
+     *
+     * @param clazz bean 的类
+     * @return 实例化函数
+     */
+    private Function<Object[], Object> createDefaultInstantiator(Class<?> clazz) {
+        Constructor<?> ctor;
+        try {
+            ctor = clazz.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new BeansException("Failed to instantiate [" + clazz.getName() + "]", e);
+        }
+        if (Modifier.isPublic(clazz.getModifiers()) && Modifier.isPublic(ctor.getModifiers()) && isVisible(clazz)) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                MethodHandle ctorHandle = lookup.unreflectConstructor(ctor);
+                CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+                        MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class),
+                        ctorHandle,
+                        MethodType.methodType(clazz));
+                Supplier<?> supplier = (Supplier<?>) site.getTarget().invoke();
+                return args -> supplier.get();
+            } catch (LambdaConversionException | ReflectiveOperationException e) {
+                // 生成 Supplier 失败时使用 MethodHandle 实现
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new BeansException("Failed to instantiate [" + clazz.getName() + "]", e);
+            }
+        }
+        return createInstantiator(ctor);
+    }
+
+    /**
+     * 为构造函数生成基于 MethodHandle 的实例化函数，参数数组会被展开为构造函数参数。
+     *
+     * @param ctor 构造函数
+     * @return 实例化函数
+     */
+    private Function<Object[], Object> createInstantiator(Constructor<?> ctor) {
+        MethodHandle handle;
+        try {
+            ctor.setAccessible(true);
+            handle = MethodHandles.lookup().unreflectConstructor(ctor)
+                    .asSpreader(Object[].class, ctor.getParameterCount())
+                    .asType(INSTANTIATOR_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new BeansException("Failed to instantiate [" + ctor.getDeclaringClass().getName() + "]", e);
+        }
+        return args -> {
+            try {
+                return (Object) handle.invokeExact(null == args ? new Object[0] : args);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new BeansException("Failed to instantiate [" + ctor.getDeclaringClass().getName() + "]", e);
+            }
+        };
+    }
+
+    /**
+     * 判断 bean 类能否从当前类的类加载器中看到，LambdaMetafactory 生成的类定义在当前类的类加载器中。
+     *
+     * @param clazz bean 的类
+     * @return 如果可见则返回 true
+     */
+    private boolean isVisible(Class<?> clazz) {
+        try {
+            return Class.forName(clazz.getName(), false, MethodHandleInstantiationStrategy.class.getClassLoader()) == clazz;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.valyn.springframework.beans.factory.support;
+
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.ClassUtil;
+import com.valyn.springframework.beans.BeansException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PropertyInjector 负责把属性值写入 Bean 的字段。
+ *
+ * 每个 Bean 类的每个属性只在第一次注入时查找一次字段，并编译成签名为 (Object, Object)void 的 MethodHandle，
+ * 之后的注入直接复用这份注入计划，不再进行反射查找。只有当值的类型与字段类型不兼容时才做类型转换。
+ */
+public class PropertyInjector {
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /** 注入计划缓存：Bean 类 -> (属性名称 -> 字段写入器) */
+    private final Map<Class<?>, Map<String, FieldSetter>> injectionPlans = new ConcurrentHashMap<>();
+
+    /**
+     * 将属性值写入 Bean 的同名字段。
+     *
+     * @param beanName Bean 名称，用于错误信息
+     * @param bean     Bean 对象
+     * @param name     属性名称
+     * @param value    属性值
+     * @throws BeansException 如果字段不存在、写入失败，或者向基本类型字段写入 null
+     */
+    public void inject(String beanName, Object bean, String name, Object value) throws BeansException {
+        getSetter(bean.getClass(), name).set(beanName, bean, value);
+    }
+
+    /**
+     * 获取 Bean 类中指定属性对应字段的类型。
+     *
+     * @param beanClass Bean 的类
+     * @param name      属性名称
+     * @return 字段类型
+     * @throws BeansException 如果字段不存在
+     */
+    public Class<?> getPropertyType(Class<?> beanClass, String name) throws BeansException {
+        return getSetter(beanClass, name).fieldType;
+    }
+
+    private FieldSetter getSetter(Class<?> beanClass, String name) {
+        Map<String, FieldSetter> plan = injectionPlans.computeIfAbsent(beanClass, clazz -> new ConcurrentHashMap<>());
+        FieldSetter setter = plan.get(name);
+        if (null == setter) {
+            setter = plan.computeIfAbsent(name, propertyName -> compile(beanClass, propertyName));
+        }
+        return setter;
+    }
+
+    /**
+     * 为指定类的属性编译字段写入器，会沿继承链向上查找字段（CGLIB 生成的子类也能找到父类字段）。
+     *
+     * @param beanClass Bean 的类
+     * @param name      属性名称
+     * @return 字段写入器
+     * @throws BeansException 如果字段不存在或无法访问
+     */
+    private FieldSetter compile(Class<?> beanClass, String name) throws BeansException {
+        for (Class<?> clazz = beanClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            Field field;
+            try {
+                field = clazz.getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                continue;
+            }
+            if (Modifier.isStatic(field.getModifiers())) {
+                throw new BeansException("Cannot inject static field [" + name + "] of " + beanClass.getName());
+            }
+            try {
+                field.setAccessible(true);
+                MethodHandle handle = MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE);
+                return new FieldSetter(name, field.getType(), handle);
+            } catch (IllegalAccessException e) {
+                throw new BeansException("Cannot access field [" + name + "] of " + beanClass.getName(), e);
+            }
+        }
+        throw new BeansException("No field named [" + name + "] in " + beanClass.getName());
+    }
+
+    /**
+     * 单个字段的写入器。
+     */
+    private static final class FieldSetter {
+
+        private final String fieldName;
+
+        private final Class<?> fieldType;
+
+        private final MethodHandle handle;
+
+        FieldSetter(String fieldName, Class<?> fieldType, MethodHandle handle) {
+            this.fieldName = fieldName;
+            this.fieldType = fieldType;
+            this.handle = handle;
+        }
+
+        void set(String beanName, Object bean, Object value) {
+            if (null != value && !ClassUtil.isAssignable(fieldType, value.getClass())) {
+                value = Convert.convert(fieldType, value);
+            }
+            if (null == value && fieldType.isPrimitive()) {
+                throw new BeansException("Cannot assign null to primitive field [" + fieldName + "] of type "
+                        + fieldType.getName() + " in bean '" + beanName + "'");
+            }
+            try {
+                handle.invokeExact(bean, value);
+            } catch (Throwable e) {
+                throw new BeansException("Failed to inject value into field [" + fieldName + "] of bean '" + beanName + "'", e);
+            }
+        }
+    }
+
+}
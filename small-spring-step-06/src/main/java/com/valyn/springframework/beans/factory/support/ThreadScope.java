@@ -0,0 +1,130 @@
+package com.valyn.springframework.beans.factory.support;
+
+import com.valyn.springframework.beans.BeansException;
+import com.valyn.springframework.beans.factory.ObjectFactory;
+import com.valyn.springframework.beans.factory.config.Scope;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ThreadScope 是线程作用域的实现，同一个作用域上下文中每个 Bean 只创建一次，且只在当前线程中可见，
+ * 因此非线程安全的对象（格式化器、缓冲区等）无需加锁即可复用。
+ *
+ * 作用域的生命周期由显式的上下文控制：调用 begin() 在当前线程上打开一个 Context，使用 try-with-resources
+ * 在结束时关闭。关闭时会执行所有销毁回调并从 ThreadLocal 中移除上下文，因此在线程池或大量短生命周期线程中
+ * 使用也不会残留对象。没有打开上下文时获取线程作用域的 Bean 会抛出异常。
+ */
+public class ThreadScope implements Scope {
+
+    private final ThreadLocal<Context> currentContext = new ThreadLocal<>();
+
+    /**
+     * 在当前线程上打开一个新的作用域上下文，嵌套打开时关闭后恢复外层上下文。
+     *
+     * @return 作用域上下文
+     */
+    public Context begin() {
+        Context context = new Context(currentContext.get());
+        currentContext.set(context);
+        return context;
+    }
+
+    /**
+     * 在一个新的作用域上下文中执行任务，执行结束后关闭上下文。
+     *
+     * @param task 要执行的任务
+     */
+    public void run(Runnable task) {
+        Context context = begin();
+        try {
+            task.run();
+        } finally {
+            context.close();
+        }
+    }
+
+    @Override
+    public Object get(String name, ObjectFactory<?> objectFactory) {
+        Context context = requireContext();
+        Object scopedObject = context.scopedObjects.get(name);
+        if (scopedObject == null) {
+            scopedObject = objectFactory.getObject();
+            context.scopedObjects.put(name, scopedObject);
+        }
+        return scopedObject;
+    }
+
+    @Override
+    public Object remove(String name) {
+        Context context = currentContext.get();
+        if (context == null) {
+            return null;
+        }
+        context.destructionCallbacks.remove(name);
+        return context.scopedObjects.remove(name);
+    }
+
+    @Override
+    public void registerDestructionCallback(String name, Runnable callback) {
+        requireContext().destructionCallbacks.computeIfAbsent(name, key -> new ArrayList<>()).add(callback);
+    }
+
+    /**
+     * 当前线程是否打开了作用域上下文。
+     *
+     * @return 如果已打开则返回 true
+     */
+    public boolean isActive() {
+        return currentContext.get() != null;
+    }
+
+    private Context requireContext() {
+        Context context = currentContext.get();
+        if (context == null) {
+            throw new BeansException("No thread scope context is active on thread " + Thread.currentThread().getName());
+        }
+        return context;
+    }
+
+    /**
+     * 线程作用域上下文，只能由打开它的线程访问和关闭。
+     */
+    public final class Context implements AutoCloseable {
+
+        private final Context parent;
+
+        private final Map<String, Object> scopedObjects = new HashMap<>();
+
+        private final Map<String, List<Runnable>> destructionCallbacks = new HashMap<>();
+
+        private Context(Context parent) {
+            this.parent = parent;
+        }
+
+        /**
+         * 关闭上下文：执行销毁回调，清空作用域中的对象，并恢复外层上下文。
+         */
+        @Override
+        public void close() {
+            try {
+                for (List<Runnable> callbacks : destructionCallbacks.values()) {
+                    for (Runnable callback : callbacks) {
+                        callback.run();
+                    }
+                }
+            } finally {
+                destructionCallbacks.clear();
+                scopedObjects.clear();
+                if (parent != null) {
+                    currentContext.set(parent);
+                } else {
+                    currentContext.remove();
+                }
+            }
+        }
+    }
+
+}
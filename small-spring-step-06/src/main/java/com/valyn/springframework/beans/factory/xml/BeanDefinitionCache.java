@@ -0,0 +1,199 @@
+package com.valyn.springframework.beans.factory.xml;
+
+import com.valyn.springframework.beans.PropertyValue;
+import com.valyn.springframework.beans.factory.config.BeanDefinition;
+import com.valyn.springframework.beans.factory.config.BeanReference;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * BeanDefinitionCache 把一个配置资源解析出的 BeanDefinition 保存为紧凑的二进制文件，文件名是资源内容的哈希值。
+ *
+ * 文件格式：魔数、格式版本、内容哈希、Bean 数量，然后依次是每个 Bean 的名称、类名、作用域、池大小、延迟初始化标志
+ * 和属性列表（字符串值或 Bean 引用），最后是整个文件内容的 CRC32 校验值。
+ * 读取时魔数、版本、哈希或校验值任何一项不符都视为缓存无效，由调用方回退到解析 XML。
+ * 写入先写临时文件再原子替换，多个进程同时启动也不会读到写了一半的文件。
+ */
+public class BeanDefinitionCache {
+
+    private static final int MAGIC = 0x53534244;
+
+    private static final int VERSION = 1;
+
+    private static final byte VALUE_NULL = 0;
+
+    private static final byte VALUE_STRING = 1;
+
+    private static final byte VALUE_REFERENCE = 2;
+
+    private final File directory;
+
+    /**
+     * 使用缓存目录构造 BeanDefinitionCache，目录不存在时在第一次写入时创建。
+     *
+     * @param directory 缓存目录
+     */
+    public BeanDefinitionCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * 读取指定内容哈希对应的缓存。
+     *
+     * @param contentHash 资源内容的哈希值
+     * @return 按注册顺序排列的 Bean 名称 -> BeanDefinition，缓存不存在时返回 null。与解析 XML 一样只还原类名，不加载类
+     * @throws IOException 如果缓存文件损坏或与哈希不匹配
+     */
+    public Map<String, BeanDefinition> read(String contentHash) throws IOException {
+        File file = getCacheFile(contentHash);
+        if (!file.isFile()) {
+            return null;
+        }
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        if (bytes.length < 8) {
+            throw new IOException("Truncated bean definition cache " + file);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 8);
+        long expected = 0;
+        for (int i = bytes.length - 8; i < bytes.length; i++) {
+            expected = (expected << 8) | (bytes[i] & 0xFF);
+        }
+        if (crc.getValue() != expected) {
+            throw new IOException("Checksum mismatch in bean definition cache " + file);
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 8));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION || !contentHash.equals(in.readUTF())) {
+            throw new IOException("Incompatible bean definition cache " + file);
+        }
+        int beanCount = in.readInt();
+        Map<String, BeanDefinition> beanDefinitions = new LinkedHashMap<>(beanCount * 2);
+        for (int i = 0; i < beanCount; i++) {
+            String beanName = in.readUTF();
+            BeanDefinition beanDefinition = new BeanDefinition(in.readUTF());
+            beanDefinition.setScope(in.readUTF());
+            beanDefinition.setPoolSize(in.readInt());
+            beanDefinition.setLazyInit(in.readBoolean());
+            int propertyCount = in.readInt();
+            for (int j = 0; j < propertyCount; j++) {
+                String name = in.readUTF();
+                beanDefinition.getPropertyValues().addPropertyValue(new PropertyValue(name, readValue(in)));
+            }
+            beanDefinitions.put(beanName, beanDefinition);
+        }
+        if (in.available() != 0) {
+            throw new IOException("Trailing data in bean definition cache " + file);
+        }
+        return beanDefinitions;
+    }
+
+    /**
+     * 写入指定内容哈希对应的缓存。
+     *
+     * @param contentHash     资源内容的哈希值
+     * @param beanDefinitions 按注册顺序排列的 Bean 名称 -> BeanDefinition
+     * @throws IOException 如果写入失败
+     */
+    public void write(String contentHash, Map<String, BeanDefinition> beanDefinitions) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+            throw new IOException("Cannot create cache directory " + directory);
+        }
+        File file = getCacheFile(contentHash);
+        File tempFile = File.createTempFile(contentHash, ".tmp", directory);
+        try {
+            CRC32 crc = new CRC32();
+            try (OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(tempFile.toPath()))) {
+                DataOutputStream out = new DataOutputStream(new CheckedOutputStream(fileOut, crc));
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(contentHash);
+                out.writeInt(beanDefinitions.size());
+                for (Map.Entry<String, BeanDefinition> entry : beanDefinitions.entrySet()) {
+                    BeanDefinition beanDefinition = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(beanDefinition.getBeanClassName());
+                    out.writeUTF(beanDefinition.getScope());
+                    out.writeInt(beanDefinition.getPoolSize());
+                    out.writeBoolean(beanDefinition.isLazyInit());
+                    PropertyValue[] propertyValues = beanDefinition.getPropertyValues().getPropertyValues();
+                    out.writeInt(propertyValues.length);
+                    for (PropertyValue propertyValue : propertyValues) {
+                        out.writeUTF(propertyValue.getName());
+                        writeValue(out, propertyValue.getValue());
+                    }
+                }
+                out.flush();
+                new DataOutputStream(fileOut).writeLong(crc.getValue());
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * 判断 BeanDefinition 能否写入缓存，只有 XML 能表达的属性值（字符串和 Bean 引用）才能缓存。
+     *
+     * @param beanDefinition Bean 定义
+     * @return 如果可以缓存则返回 true
+     */
+    public static boolean isCacheable(BeanDefinition beanDefinition) {
+        if (beanDefinition.getInstanceSupplier() != null) {
+            return false;
+        }
+        for (PropertyValue propertyValue : beanDefinition.getPropertyValues().getPropertyValues()) {
+            Object value = propertyValue.getValue();
+            if (value != null && !(value instanceof String) && !(value instanceof BeanReference)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private File getCacheFile(String contentHash) {
+        return new File(directory, contentHash + ".bdc");
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_STRING:
+                return in.readUTF();
+            case VALUE_REFERENCE:
+                String beanName = in.readUTF();
+                return new BeanReference(beanName, in.readBoolean());
+            default:
+                throw new IOException("Unknown property value type " + type);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(VALUE_NULL);
+        } else if (value instanceof BeanReference) {
+            BeanReference reference = (BeanReference) value;
+            out.writeByte(VALUE_REFERENCE);
+            out.writeUTF(reference.getBeanName());
+            out.writeBoolean(reference.isLazy());
+        } else {
+            out.writeByte(VALUE_STRING);
+            out.writeUTF((String) value);
+        }
+    }
+
+}
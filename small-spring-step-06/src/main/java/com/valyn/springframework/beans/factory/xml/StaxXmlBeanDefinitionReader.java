@@ -0,0 +1,241 @@
+package com.valyn.springframework.beans.factory.xml;
+
+import cn.hutool.core.util.StrUtil;
+import com.valyn.springframework.beans.BeansException;
+import com.valyn.springframework.beans.PropertyValue;
+import com.valyn.springframework.beans.factory.config.BeanDefinition;
+import com.valyn.springframework.beans.factory.config.BeanReference;
+import com.valyn.springframework.beans.factory.config.ConfigurableBeanFactory;
+import com.valyn.springframework.beans.factory.support.BeanDefinitionRegistry;
+import com.valyn.springframework.core.io.ResourceLoader;
+import com.valyn.springframework.utils.ClassUtils;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+
+/**
+ * StaxXmlBeanDefinitionReader 是基于 javax.xml.stream 的流式 XML 读取器，支持的配置格式与 XmlBeanDefinitionReader 相同。
+ *
+ * 与先构建完整 DOM 的 XmlBeanDefinitionReader 不同，它逐个读取 bean 元素，只保留解析出的 BeanDefinition，
+ * 解析本身占用的内存与文件大小无关。整个文档解析成功后才按文档顺序注册，文档后部出错时不会留下部分注册的定义，
+ * 与 XmlBeanDefinitionReader 的行为一致。与 XmlBeanDefinitionReader 一样只记录类名，类在第一次需要时才由 BeanFactory 的类加载器加载。
+ *
+ * 读取器不解析 DTD，也不加载外部实体，文档中的实体定义不会被展开。
+ *
+ * 设置 classPreloadExecutor 后，每读完一个 bean 就把类名交给该执行器，用 Bean 类加载器预先加载（不执行静态初始化），
+ * 类加载与 XML 解析因此可以重叠执行。预加载只是预热，结果不写入 BeanDefinition，失败也会被忽略。
+ */
+public class StaxXmlBeanDefinitionReader extends XmlBeanDefinitionReader {
+
+    private final XMLInputFactory inputFactory;
+
+    private Executor classPreloadExecutor;
+
+    /**
+     * 使用给定的 Bean 定义注册表构造一个 StaxXmlBeanDefinitionReader 对象。
+     *
+     * @param registry Bean 定义注册表，用于注册解析出的 Bean 定义。
+     */
+    public StaxXmlBeanDefinitionReader(BeanDefinitionRegistry registry) {
+        super(registry);
+        this.inputFactory = createInputFactory();
+    }
+
+    /**
+     * 使用给定的 Bean 定义注册表和资源加载器构造一个 StaxXmlBeanDefinitionReader 对象。
+     *
+     * @param registry       Bean 定义注册表，用于注册解析出的 Bean 定义。
+     * @param resourceLoader 资源加载器，用于获取 Bean 定义所在的资源。
+     */
+    public StaxXmlBeanDefinitionReader(BeanDefinitionRegistry registry, ResourceLoader resourceLoader) {
+        super(registry, resourceLoader);
+        this.inputFactory = createInputFactory();
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+        return factory;
+    }
+
+    /**
+     * 设置在后台预加载 Bean 类的执行器，默认为 null，不预加载。
+     *
+     * @param classPreloadExecutor 预加载执行器
+     */
+    public void setClassPreloadExecutor(Executor classPreloadExecutor) {
+        this.classPreloadExecutor = classPreloadExecutor;
+    }
+
+    /**
+     * 流式解析 Bean 定义，不修改注册表，由调用方在整个文档解析成功后统一注册。
+     *
+     * @param inputStream 包含 Bean 定义的输入流。
+     * @return 按文档顺序排列的 Bean 名称 -> BeanDefinition
+     */
+    @Override
+    protected Map<String, BeanDefinition> parseBeanDefinitions(InputStream inputStream) {
+        Map<String, BeanDefinition> beanDefinitions = new LinkedHashMap<>();
+        streamBeanDefinitions(inputStream, (beanName, beanDefinition) -> {
+            if (beanDefinitions.containsKey(beanName) || getRegistry().containsBeanDefinition(beanName)) {
+                throw new BeansException("Duplicate beanName[" + beanName + "] is not allowed");
+            }
+            beanDefinitions.put(beanName, beanDefinition);
+        });
+        return beanDefinitions;
+    }
+
+    /**
+     * 流式解析 XML，并按文档顺序把每个 Bean 定义交给 consumer。
+     *
+     * @param inputStream 包含 Bean 定义的输入流
+     * @param consumer    接收 Bean 名称和 BeanDefinition
+     */
+    private void streamBeanDefinitions(InputStream inputStream, BiConsumer<String, BeanDefinition> consumer) {
+        Executor executor = classPreloadExecutor;
+        ClassLoader classLoader = executor != null ? getBeanClassLoader() : null;
+        XMLStreamReader reader = null;
+        try {
+            reader = inputFactory.createXMLStreamReader(inputStream);
+            int depth = 0;
+            PendingBean current = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String elementName = reader.getLocalName();
+                    if (depth == 2 && "bean".equals(elementName)) {
+                        current = new PendingBean(reader);
+                    } else if (depth == 3 && current != null && "property".equals(elementName)) {
+                        current.addProperty(reader);
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (depth == 2 && current != null) {
+                        // bean 元素读取完毕，先交给预加载，再注册
+                        if (executor != null) {
+                            preloadClass(executor, current.className, classLoader);
+                        }
+                        current.register(consumer);
+                        current = null;
+                    }
+                    depth--;
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new BeansException("Failed to parse XML document", e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // 关闭失败不影响结果
+                }
+            }
+        }
+    }
+
+    private ClassLoader getBeanClassLoader() {
+        BeanDefinitionRegistry registry = getRegistry();
+        if (registry instanceof ConfigurableBeanFactory) {
+            return ((ConfigurableBeanFactory) registry).getBeanClassLoader();
+        }
+        return ClassUtils.getDefaultClassLoader();
+    }
+
+    private static void preloadClass(Executor executor, String className, ClassLoader classLoader) {
+        if (StrUtil.isBlank(className)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    Class.forName(className, false, classLoader);
+                } catch (ClassNotFoundException | LinkageError ignored) {
+                    // 预加载失败时忽略，第一次使用时 BeanFactory 会报告错误
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            // 执行器已关闭时不再预加载
+        }
+    }
+
+    /**
+     * 正在读取的 bean 元素。
+     */
+    private static final class PendingBean {
+
+        private final String id;
+
+        private final String name;
+
+        private final String className;
+
+        private final String scope;
+
+        private final String poolSize;
+
+        private final String lazyInit;
+
+        private final List<PropertyValue> propertyValues = new ArrayList<>();
+
+        PendingBean(XMLStreamReader reader) {
+            this.id = reader.getAttributeValue(null, "id");
+            this.name = reader.getAttributeValue(null, "name");
+            this.className = reader.getAttributeValue(null, "class");
+            this.scope = reader.getAttributeValue(null, "scope");
+            this.poolSize = reader.getAttributeValue(null, "pool-size");
+            this.lazyInit = reader.getAttributeValue(null, "lazy-init");
+        }
+
+        void addProperty(XMLStreamReader reader) {
+            String attrName = StrUtil.nullToEmpty(reader.getAttributeValue(null, "name"));
+            String attrValue = StrUtil.nullToEmpty(reader.getAttributeValue(null, "value"));
+            String attrRef = reader.getAttributeValue(null, "ref");
+            String attrLazy = reader.getAttributeValue(null, "lazy");
+
+            // 根据属性值的类型创建 PropertyValue 对象
+            Object value = StrUtil.isNotEmpty(attrRef) ? new BeanReference(attrRef, Boolean.parseBoolean(attrLazy)) : attrValue;
+            propertyValues.add(new PropertyValue(attrName, value));
+        }
+
+        void register(BiConsumer<String, BeanDefinition> consumer) {
+            // 只记录类名，类在第一次需要时才由 BeanFactory 的类加载器加载
+            if (StrUtil.isBlank(className)) {
+                throw new BeansException("Bean class is not specified for bean with id '" + StrUtil.nullToEmpty(id)
+                        + "' and name '" + StrUtil.nullToEmpty(name) + "'");
+            }
+
+            // 根据 id 和 name 进行 Bean 名称的确定
+            String beanName = StrUtil.isNotEmpty(id) ? id : name;
+            if (StrUtil.isEmpty(beanName)) {
+                beanName = StrUtil.lowerFirst(getShortClassName(className));
+            }
+
+            BeanDefinition beanDefinition = new BeanDefinition(className);
+            if (StrUtil.isNotEmpty(scope)) {
+                beanDefinition.setScope(scope);
+            }
+            if (StrUtil.isNotEmpty(poolSize)) {
+                beanDefinition.setPoolSize(Integer.parseInt(poolSize));
+            }
+            beanDefinition.setLazyInit(Boolean.parseBoolean(lazyInit));
+            for (PropertyValue propertyValue : propertyValues) {
+                beanDefinition.getPropertyValues().addPropertyValue(propertyValue);
+            }
+            consumer.accept(beanName, beanDefinition);
+        }
+    }
+
+}
@@ -1,7 +1,9 @@
 package com.valyn.springframework.beans.factory.xml;
 
+import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.XmlUtil;
+import cn.hutool.crypto.digest.DigestUtil;
 import com.valyn.springframework.beans.BeansException;
 import com.valyn.springframework.beans.PropertyValue;
 import com.valyn.springframework.beans.factory.config.BeanDefinition;
@@ -14,8 +16,17 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * XmlBeanDefinitionReader 类是从 XML 文件中读取 Bean 定义的类。
@@ -26,6 +37,14 @@ import java.io.InputStream;
  */
 public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
 
+    /** 指定 BeanDefinition 缓存目录的系统属性，设置后默认开启缓存 */
+    public static final String DEFINITION_CACHE_DIRECTORY_PROPERTY = "small-spring.definition-cache.dir";
+
+    private BeanDefinitionCache definitionCache;
+
+    /** 并行解析多个资源使用的执行器，为 null 时逐个加载 */
+    private Executor parseExecutor;
+
     /**
      * 使用给定的 Bean 定义注册表构造一个 XmlBeanDefinitionReader 对象。
      *
@@ -33,6 +52,7 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
      */
     public XmlBeanDefinitionReader(BeanDefinitionRegistry registry) {
         super(registry);
+        initDefinitionCache();
     }
 
     /**
@@ -43,6 +63,36 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
      */
     public XmlBeanDefinitionReader(BeanDefinitionRegistry registry, ResourceLoader resourceLoader) {
         super(registry, resourceLoader);
+        initDefinitionCache();
+    }
+
+    private void initDefinitionCache() {
+        String directory = System.getProperty(DEFINITION_CACHE_DIRECTORY_PROPERTY);
+        if (StrUtil.isNotBlank(directory)) {
+            setDefinitionCacheDirectory(new File(directory));
+        }
+    }
+
+    /**
+     * 设置 BeanDefinition 缓存目录，传入 null 关闭缓存。
+     *
+     * 开启后每个资源按内容的 SHA-256 哈希查找缓存文件：命中时直接从缓存还原 BeanDefinition，不再解析 XML；
+     * 未命中时解析 XML 并写入缓存。资源内容一旦变化哈希随之变化，旧缓存自然失效；
+     * 缓存文件损坏或格式不兼容时回退到解析 XML 并重写缓存。
+     *
+     * @param directory 缓存目录
+     */
+    public void setDefinitionCacheDirectory(File directory) {
+        this.definitionCache = directory != null ? new BeanDefinitionCache(directory) : null;
+    }
+
+    /**
+     * 设置并行解析多个资源使用的执行器，默认为 null，逐个加载。
+     *
+     * @param parseExecutor 执行器
+     */
+    public void setParseExecutor(Executor parseExecutor) {
+        this.parseExecutor = parseExecutor;
     }
 
     /**
@@ -53,11 +103,35 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
      */
     @Override
     public void loadBeanDefinitions(Resource resource) throws BeansException {
+        if (definitionCache != null) {
+            registerBeanDefinitions(readBeanDefinitions(resource));
+            return;
+        }
         try {
             try (InputStream inputStream = resource.getInputStream()) {
                 doLoadBeanDefinitions(inputStream);
             }
-        } catch (IOException | ClassNotFoundException e) {
+        } catch (IOException e) {
+            throw new BeansException("IOException parsing XML document from " + resource, e);
+        }
+    }
+
+    /**
+     * 读取并解析指定资源中的 Bean 定义，不修改注册表。开启缓存时优先从缓存还原。
+     *
+     * @param resource 要读取的资源。
+     * @return 按文档顺序排列的 Bean 名称 -> BeanDefinition
+     * @throws BeansException 如果解析 XML 文档出现异常，则抛出此异常。
+     */
+    protected Map<String, BeanDefinition> readBeanDefinitions(Resource resource) throws BeansException {
+        try {
+            try (InputStream inputStream = resource.getInputStream()) {
+                if (definitionCache == null) {
+                    return parseBeanDefinitions(inputStream);
+                }
+                return readBeanDefinitions(IoUtil.readBytes(inputStream));
+            }
+        } catch (IOException e) {
             throw new BeansException("IOException parsing XML document from " + resource, e);
         }
     }
@@ -70,8 +144,33 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
      */
     @Override
     public void loadBeanDefinitions(Resource... resources) throws BeansException {
+        if (parseExecutor == null || resources.length < 2) {
+            for (Resource resource : resources) {
+                loadBeanDefinitions(resource);
+            }
+            return;
+        }
+
+        // 所有资源同时解析，解析结果再按参数顺序注册，注册顺序与逐个加载相同
+        List<CompletableFuture<Map<String, BeanDefinition>>> parsed = new ArrayList<>(resources.length);
         for (Resource resource : resources) {
-            loadBeanDefinitions(resource);
+            parsed.add(CompletableFuture.supplyAsync(() -> readBeanDefinitions(resource), parseExecutor));
+        }
+        for (int i = 0; i < resources.length; i++) {
+            Map<String, BeanDefinition> beanDefinitions;
+            try {
+                beanDefinitions = parsed.get(i).join();
+            } catch (CompletionException e) {
+                // 解析失败时从该资源开始改为逐个加载，抛出与逐个加载完全相同的异常
+                for (int j = i + 1; j < resources.length; j++) {
+                    parsed.get(j).cancel(false);
+                }
+                for (int j = i; j < resources.length; j++) {
+                    loadBeanDefinitions(resources[j]);
+                }
+                return;
+            }
+            registerBeanDefinitions(beanDefinitions);
         }
     }
 
@@ -89,25 +188,88 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
     }
 
     /**
-     * 从多个位置加载 Bean 定义。
+     * 从多个位置加载 Bean 定义，设置了解析执行器时多个资源会并行解析，见 loadBeanDefinitions(Resource...)。
      *
      * @param locations 要加载的多个位置。
      * @throws BeansException 如果解析 XML 文档出现异常，则抛出此异常。
      */
     @Override
     public void loadBeanDefinitions(String... locations) throws BeansException {
-        for (String location : locations) {
-            loadBeanDefinitions(location);
+        ResourceLoader resourceLoader = getResourceLoader();
+        Resource[] resources = new Resource[locations.length];
+        for (int i = 0; i < locations.length; i++) {
+            resources[i] = resourceLoader.getResource(locations[i]);
         }
+        loadBeanDefinitions(resources);
     }
 
     /**
      * 实际执行从输入流中加载 Bean 定义的操作。
      *
      * @param inputStream 包含 Bean 定义的输入流。
-     * @throws ClassNotFoundException 如果无法找到指定类的定义，则抛出此异常。
+     * @throws BeansException 如果 Bean 定义不合法，则抛出此异常。
      */
-    protected void doLoadBeanDefinitions(InputStream inputStream) throws ClassNotFoundException {
+    protected void doLoadBeanDefinitions(InputStream inputStream) throws BeansException {
+        registerBeanDefinitions(parseBeanDefinitions(inputStream));
+    }
+
+    /**
+     * 使用缓存读取 Bean 定义：缓存命中时跳过 XML 解析，未命中或缓存无效时解析并写入缓存。
+     * 缓存只是加速手段，读写缓存的任何失败都不会影响加载结果。
+     *
+     * @param content 资源的完整内容
+     * @return 按文档顺序排列的 Bean 名称 -> BeanDefinition
+     * @throws BeansException 如果 Bean 定义不合法，则抛出此异常。
+     */
+    protected Map<String, BeanDefinition> readBeanDefinitions(byte[] content) throws BeansException {
+        String contentHash = DigestUtil.sha256Hex(content);
+        Map<String, BeanDefinition> beanDefinitions = null;
+        try {
+            beanDefinitions = definitionCache.read(contentHash);
+        } catch (IOException | RuntimeException ignored) {
+            // 缓存损坏或已过期，回退到解析 XML
+        }
+        if (beanDefinitions == null) {
+            beanDefinitions = parseBeanDefinitions(new ByteArrayInputStream(content));
+            if (beanDefinitions.values().stream().allMatch(BeanDefinitionCache::isCacheable)) {
+                try {
+                    definitionCache.write(contentHash, beanDefinitions);
+                } catch (IOException ignored) {
+                    // 缓存目录不可写时只是失去加速效果
+                }
+            }
+        }
+        return beanDefinitions;
+    }
+
+    /**
+     * 将解析出的 Bean 定义按顺序注册到注册表中。
+     *
+     * @param beanDefinitions Bean 名称 -> BeanDefinition
+     * @throws BeansException 如果注册表中已存在同名的 BeanDefinition
+     */
+    protected void registerBeanDefinitions(Map<String, BeanDefinition> beanDefinitions) throws BeansException {
+        for (Map.Entry<String, BeanDefinition> entry : beanDefinitions.entrySet()) {
+            // 检查注册表中是否已存在同名的 BeanDefinition
+            if (getRegistry().containsBeanDefinition(entry.getKey())) {
+                throw new BeansException("Duplicate beanName[" + entry.getKey() + "] is not allowed");
+            }
+
+            // 注册 BeanDefinition
+            getRegistry().registerBeanDefinition(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * 解析 XML 文档中的 Bean 定义，不修改注册表。
+     *
+     * @param inputStream 包含 Bean 定义的输入流。
+     * @return 按文档顺序排列的 Bean 名称 -> BeanDefinition
+     * @throws BeansException 如果 Bean 定义不合法，则抛出此异常。
+     */
+    protected Map<String, BeanDefinition> parseBeanDefinitions(InputStream inputStream) throws BeansException {
+        Map<String, BeanDefinition> beanDefinitions = new LinkedHashMap<>();
+
         // 解析 XML 文档，并获取根节点和子节点列表
         Document doc = XmlUtil.readXML(inputStream);
         Element root = doc.getDocumentElement();
@@ -126,18 +288,30 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
             String id = element.getAttribute("id");
             String name = element.getAttribute("name");
             String className = element.getAttribute("class");
+            String beanScope = element.getAttribute("scope");
+            String poolSize = element.getAttribute("pool-size");
+            String lazyInit = element.getAttribute("lazy-init");
 
-            // 获取 Class 对象
-            Class<?> clazz = Class.forName(className);
+            // 只记录类名，类在第一次需要时才由 BeanFactory 的类加载器加载
+            if (StrUtil.isBlank(className)) {
+                throw new BeansException("Bean class is not specified for bean with id '" + id + "' and name '" + name + "'");
+            }
 
             // 根据 id 和 name 进行 Bean 名称的确定
             String beanName = StrUtil.isNotEmpty(id) ? id : name;
             if (StrUtil.isEmpty(beanName)) {
-                beanName = StrUtil.lowerFirst(clazz.getSimpleName());
+                beanName = StrUtil.lowerFirst(getShortClassName(className));
             }
 
             // 创建 BeanDefinition 对象
-            BeanDefinition beanDefinition = new BeanDefinition(clazz);
+            BeanDefinition beanDefinition = new BeanDefinition(className);
+            if (StrUtil.isNotEmpty(beanScope)) {
+                beanDefinition.setScope(beanScope);
+            }
+            if (StrUtil.isNotEmpty(poolSize)) {
+                beanDefinition.setPoolSize(Integer.parseInt(poolSize));
+            }
+            beanDefinition.setLazyInit(Boolean.parseBoolean(lazyInit));
 
             // 解析 bean 标签的子节点，即 <property> 标签
             NodeList propertyNodes = element.getChildNodes();
@@ -153,22 +327,33 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
                 String attrName = propertyElement.getAttribute("name");
                 String attrValue = propertyElement.getAttribute("value");
                 String attrRef = propertyElement.getAttribute("ref");
+                String attrLazy = propertyElement.getAttribute("lazy");
 
                 // 根据属性值的类型创建 PropertyValue 对象
-                Object value = StrUtil.isNotEmpty(attrRef) ? new BeanReference(attrRef) : attrValue;
+                Object value = StrUtil.isNotEmpty(attrRef) ? new BeanReference(attrRef, Boolean.parseBoolean(attrLazy)) : attrValue;
                 PropertyValue propertyValue = new PropertyValue(attrName, value);
 
                 // 将 PropertyValue 添加到 BeanDefinition 的属性列表中
                 beanDefinition.getPropertyValues().addPropertyValue(propertyValue);
             }
 
-            // 检查注册表中是否已存在同名的 BeanDefinition
-            if (getRegistry().containsBeanDefinition(beanName)) {
+            // 检查文档或注册表中是否已存在同名的 BeanDefinition
+            if (beanDefinitions.containsKey(beanName) || getRegistry().containsBeanDefinition(beanName)) {
                 throw new BeansException("Duplicate beanName[" + beanName + "] is not allowed");
             }
-
-            // 注册 BeanDefinition
-            getRegistry().registerBeanDefinition(beanName, beanDefinition);
+            beanDefinitions.put(beanName, beanDefinition);
         }
+        return beanDefinitions;
     }
+
+    /**
+     * 获取不含包名的类名，与 Class.getSimpleName() 对顶层类和静态嵌套类的结果相同。
+     *
+     * @param className 类的全限定名
+     * @return 简单类名
+     */
+    protected static String getShortClassName(String className) {
+        return className.substring(Math.max(className.lastIndexOf('.'), className.lastIndexOf('$')) + 1);
+    }
+
 }
@@ -1,6 +1,7 @@
 package com.valyn.springframework.context;
 
 import com.valyn.springframework.beans.BeansException;
+import com.valyn.springframework.core.metrics.ApplicationStartup;
 
 public interface ConfigurableApplicationContext extends ApplicationContext {
 
@@ -11,4 +12,23 @@ public interface ConfigurableApplicationContext extends ApplicationContext {
      */
     void refresh() throws BeansException;
 
+    /**
+     * 关闭容器，注销刷新时注册的 JMX MBean
+     */
+    void close();
+
+    /**
+     * 设置记录启动步骤的 ApplicationStartup，在下一次 refresh 时生效
+     *
+     * @param applicationStartup 启动步骤记录器
+     */
+    void setApplicationStartup(ApplicationStartup applicationStartup);
+
+    /**
+     * 获取记录启动步骤的 ApplicationStartup
+     *
+     * @return 启动步骤记录器
+     */
+    ApplicationStartup getApplicationStartup();
+
 }
\ No newline at end of file
@@ -0,0 +1,289 @@
+package com.valyn.springframework.context.aot;
+
+import cn.hutool.core.convert.BasicType;
+import cn.hutool.core.util.StrUtil;
+import com.valyn.springframework.beans.BeansException;
+import com.valyn.springframework.beans.PropertyValue;
+import com.valyn.springframework.beans.factory.config.BeanDefinition;
+import com.valyn.springframework.beans.factory.config.BeanReference;
+import com.valyn.springframework.beans.factory.support.DefaultListableBeanFactory;
+import com.valyn.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import com.valyn.springframework.context.support.AbstractGeneratedApplicationContext;
+import com.valyn.springframework.utils.ClassUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ApplicationContextSourceGenerator 是构建期使用的容器预编译工具。
+ *
+ * 它通过 XmlBeanDefinitionReader 读取与运行时相同的 XML 配置，生成一个继承 AbstractGeneratedApplicationContext 的 Java 源文件：
+ * 每个 Bean 都注册一个 BeanDefinition，并设置实例提供者，在提供者中用 new 创建对象、用 setter 注入属性值和依赖的 Bean。
+ * 运行时使用生成的上下文即可跳过 XML 解析、Class.forName、构造函数反射和反射注入。
+ *
+ * 无法在生成代码中直接处理的情况会保留为 BeanDefinition 中的属性值，在运行时按原来的方式注入：
+ * 例如非公共类或没有公共无参构造函数的类、没有公共 setter 的属性、无法从字符串生成字面量的属性类型、延迟解析的引用。
+ * BeanFactoryPostProcessor 与 BeanPostProcessor 在生成的上下文中照常执行。
+ *
+ * 用法：java ApplicationContextSourceGenerator &lt;输出目录&gt; &lt;生成类的全限定名&gt; &lt;配置位置...&gt;
+ */
+public class ApplicationContextSourceGenerator {
+
+    private static final String INDENT = "        ";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: ApplicationContextSourceGenerator <outputDir> <className> <configLocation...>");
+            System.exit(1);
+        }
+        File sourceFile = new ApplicationContextSourceGenerator().generateTo(new File(args[0]), args[1], Arrays.copyOfRange(args, 2, args.length));
+        System.out.println("Generated " + sourceFile);
+    }
+
+    /**
+     * 生成源文件并写入输出目录，目录结构与包名对应。
+     *
+     * @param outputDir       源文件输出目录
+     * @param className       生成类的全限定名
+     * @param configLocations 配置文件的位置
+     * @return 生成的源文件
+     * @throws IOException 如果写入失败
+     */
+    public File generateTo(File outputDir, String className, String... configLocations) throws IOException {
+        String source = generate(className, configLocations);
+        File sourceFile = new File(outputDir, className.replace('.', File.separatorChar) + ".java");
+        File parent = sourceFile.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create directory " + parent);
+        }
+        Files.write(sourceFile.toPath(), source.getBytes(StandardCharsets.UTF_8));
+        return sourceFile;
+    }
+
+    /**
+     * 读取配置并生成上下文源代码。
+     *
+     * @param className       生成类的全限定名
+     * @param configLocations 配置文件的位置
+     * @return 生成的 Java 源代码
+     * @throws BeansException 如果读取配置失败
+     */
+    public String generate(String className, String... configLocations) throws BeansException {
+        DefaultListableBeanFactory registry = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(registry).loadBeanDefinitions(configLocations);
+
+        int lastDot = className.lastIndexOf('.');
+        String packageName = lastDot > 0 ? className.substring(0, lastDot) : null;
+        String simpleName = className.substring(lastDot + 1);
+
+        StringBuilder out = new StringBuilder();
+        if (packageName != null) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("/**\n")
+                .append(" * 由 ").append(ApplicationContextSourceGenerator.class.getSimpleName()).append(" 根据 ")
+                .append(String.join(", ", configLocations)).append(" 生成，请勿手动修改。\n")
+                .append(" */\n")
+                .append("public class ").append(simpleName).append(" extends ")
+                .append(AbstractGeneratedApplicationContext.class.getName()).append(" {\n\n")
+                .append("    public ").append(simpleName).append("() {\n")
+                .append("        refresh();\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    protected void registerBeanDefinitions(final ")
+                .append(DefaultListableBeanFactory.class.getName()).append(" beanFactory) {\n");
+
+        String[] beanNames = registry.getBeanDefinitionNames();
+        for (int i = 0; i < beanNames.length; i++) {
+            generateBeanDefinition(out, registry, beanNames[i], "bd" + i);
+        }
+
+        out.append("    }\n\n}\n");
+        return out.toString();
+    }
+
+    /**
+     * 生成单个 BeanDefinition 的注册代码。
+     */
+    private void generateBeanDefinition(StringBuilder out, DefaultListableBeanFactory registry, String beanName, String var) {
+        BeanDefinition beanDefinition = registry.getBeanDefinition(beanName);
+        Class<?> beanClass = resolveBeanClass(beanDefinition);
+        String typeName = beanClass.getCanonicalName();
+        String definitionType = BeanDefinition.class.getName();
+
+        out.append(INDENT).append("// ").append(beanName).append('\n');
+        out.append(INDENT).append(definitionType).append(' ').append(var).append(" = new ")
+                .append(definitionType).append('(').append(typeName).append(".class);\n");
+        if (!beanDefinition.isSingleton()) {
+            out.append(INDENT).append(var).append(".setScope(").append(literal(beanDefinition.getScope())).append(");\n");
+        }
+        if (beanDefinition.getPoolSize() != BeanDefinition.DEFAULT_POOL_SIZE) {
+            out.append(INDENT).append(var).append(".setPoolSize(").append(beanDefinition.getPoolSize()).append(");\n");
+        }
+        if (beanDefinition.isLazyInit()) {
+            out.append(INDENT).append(var).append(".setLazyInit(true);\n");
+        }
+
+        List<PropertyValue> runtimeProperties = new ArrayList<>();
+        if (isInstantiable(beanClass)) {
+            out.append(INDENT).append(var).append(".setInstanceSupplier(() -> {\n");
+            out.append(INDENT).append("    ").append(typeName).append(" bean = new ").append(typeName).append("();\n");
+            for (PropertyValue propertyValue : beanDefinition.getPropertyValues().getPropertyValues()) {
+                String assignment = generateAssignment(registry, beanClass, propertyValue);
+                if (assignment == null) {
+                    runtimeProperties.add(propertyValue);
+                } else {
+                    out.append(INDENT).append("    bean.").append(assignment).append(";\n");
+                }
+            }
+            out.append(INDENT).append("    return bean;\n");
+            out.append(INDENT).append("});\n");
+        } else {
+            runtimeProperties.addAll(Arrays.asList(beanDefinition.getPropertyValues().getPropertyValues()));
+        }
+
+        for (PropertyValue propertyValue : runtimeProperties) {
+            out.append(INDENT).append(var).append(".getPropertyValues().addPropertyValue(new ")
+                    .append(PropertyValue.class.getName()).append('(').append(literal(propertyValue.getName())).append(", ")
+                    .append(runtimeValue(propertyValue.getValue())).append("));\n");
+        }
+        out.append(INDENT).append("beanFactory.registerBeanDefinition(").append(literal(beanName)).append(", ").append(var).append(");\n\n");
+    }
+
+    /**
+     * 解析 BeanDefinition 的类，XML 读取器只记录了类名。
+     */
+    private Class<?> resolveBeanClass(BeanDefinition beanDefinition) {
+        try {
+            return beanDefinition.resolveBeanClass(ClassUtils.getDefaultClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new BeansException("Cannot find class [" + beanDefinition.getBeanClassName() + "]", e);
+        }
+    }
+
+    /**
+     * 生成属性的 setter 调用，无法生成时返回 null。
+     */
+    private String generateAssignment(DefaultListableBeanFactory registry, Class<?> beanClass, PropertyValue propertyValue) {
+        Object value = propertyValue.getValue();
+        Method setter = findSetter(beanClass, propertyValue.getName());
+        if (setter == null) {
+            return null;
+        }
+        Class<?> parameterType = setter.getParameterTypes()[0];
+        String expression;
+        if (value instanceof BeanReference) {
+            BeanReference reference = (BeanReference) value;
+            if (reference.isLazy() || !registry.containsBeanDefinition(reference.getBeanName())
+                    || !parameterType.isAssignableFrom(resolveBeanClass(registry.getBeanDefinition(reference.getBeanName())))
+                    || !Modifier.isPublic(parameterType.getModifiers())) {
+                return null;
+            }
+            expression = "beanFactory.getBean(" + literal(reference.getBeanName()) + ", " + boxedName(parameterType) + ".class)";
+        } else if (value instanceof String) {
+            expression = stringExpression(parameterType, (String) value);
+        } else {
+            return null;
+        }
+        return expression == null ? null : setter.getName() + "(" + expression + ")";
+    }
+
+    /**
+     * 将字符串值转换为目标类型的 Java 表达式，不支持的类型返回 null。
+     */
+    private String stringExpression(Class<?> type, String value) {
+        String literal = literal(value);
+        if (type == String.class || type == Object.class || type == CharSequence.class) return literal;
+        if (type == int.class || type == Integer.class) return "Integer.valueOf(" + literal + ")";
+        if (type == long.class || type == Long.class) return "Long.valueOf(" + literal + ")";
+        if (type == short.class || type == Short.class) return "Short.valueOf(" + literal + ")";
+        if (type == byte.class || type == Byte.class) return "Byte.valueOf(" + literal + ")";
+        if (type == double.class || type == Double.class) return "Double.valueOf(" + literal + ")";
+        if (type == float.class || type == Float.class) return "Float.valueOf(" + literal + ")";
+        if (type == boolean.class || type == Boolean.class) return "Boolean.valueOf(" + literal + ")";
+        return null;
+    }
+
+    /**
+     * 查找属性对应的公共 setter，兼容 setuId 这类首字母不大写的写法。
+     */
+    private Method findSetter(Class<?> beanClass, String propertyName) {
+        for (String name : new String[]{"set" + StrUtil.upperFirst(propertyName), "set" + propertyName}) {
+            for (Method method : beanClass.getMethods()) {
+                if (method.getName().equals(name) && method.getParameterCount() == 1
+                        && !Modifier.isStatic(method.getModifiers())) {
+                    return method;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 判断生成的代码能否直接 new 该类：公共的顶层或静态嵌套类，且有公共无参构造函数。
+     */
+    private boolean isInstantiable(Class<?> beanClass) {
+        if (!Modifier.isPublic(beanClass.getModifiers()) || Modifier.isAbstract(beanClass.getModifiers())
+                || beanClass.getCanonicalName() == null
+                || (beanClass.getEnclosingClass() != null && !Modifier.isStatic(beanClass.getModifiers()))) {
+            return false;
+        }
+        for (Constructor<?> ctor : beanClass.getConstructors()) {
+            if (ctor.getParameterCount() == 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 生成运行时注入使用的属性值表达式。
+     */
+    private String runtimeValue(Object value) {
+        if (value instanceof BeanReference) {
+            BeanReference reference = (BeanReference) value;
+            return "new " + BeanReference.class.getName() + "(" + literal(reference.getBeanName()) + ", " + reference.isLazy() + ")";
+        }
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof String) {
+            return literal((String) value);
+        }
+        throw new BeansException("Cannot generate source for property value of type " + value.getClass().getName());
+    }
+
+    private String boxedName(Class<?> type) {
+        return BasicType.wrap(type).getCanonicalName();
+    }
+
+    /**
+     * 生成 Java 字符串字面量。
+     */
+    private String literal(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+}
@@ -1,12 +1,32 @@
 package com.valyn.springframework.context.support;
 
 import com.valyn.springframework.beans.BeansException;
+import com.valyn.springframework.beans.factory.BeanHandle;
 import com.valyn.springframework.beans.factory.ConfigurableListableBeanFactory;
+import com.valyn.springframework.beans.factory.ObjectProvider;
+import com.valyn.springframework.beans.factory.config.BeanDefinition;
 import com.valyn.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import com.valyn.springframework.beans.factory.config.BeanPostProcessor;
 import com.valyn.springframework.context.ConfigurableApplicationContext;
+import com.valyn.springframework.core.OrderComparator;
 import com.valyn.springframework.core.io.DefaultResourceLoader;
+import com.valyn.springframework.core.metrics.ApplicationStartup;
+import com.valyn.springframework.core.metrics.BeanCreationProfiler;
+import com.valyn.springframework.core.metrics.BeanFactoryMetrics;
+import com.valyn.springframework.core.metrics.StartupStep;
+import com.valyn.springframework.utils.ClassUtils;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -14,6 +34,24 @@ import java.util.Map;
  */
 public abstract class AbstractApplicationContext extends DefaultResourceLoader implements ConfigurableApplicationContext {
 
+    /** 指定启动步骤记录器的系统属性，值为 jfr 时使用 FlightRecorderApplicationStartup */
+    public static final String APPLICATION_STARTUP_PROPERTY = "small-spring.application-startup";
+
+    private static final String FLIGHT_RECORDER_APPLICATION_STARTUP_CLASS =
+            "com.valyn.springframework.core.metrics.jfr.FlightRecorderApplicationStartup";
+
+    /** 指定 Bean 创建开销报告文件的系统属性，设置后刷新时统计每个 Bean 的 CPU 时间和内存分配 */
+    public static final String BEAN_CREATION_PROFILE_PROPERTY = "small-spring.bean-creation-profile";
+
+    /** 开启运行指标并注册到平台 MBeanServer 的系统属性 */
+    public static final String METRICS_PROPERTY = "small-spring.metrics.jmx";
+
+    private ApplicationStartup applicationStartup;
+
+    private ObjectName metricsObjectName;
+
+    private BeanCreationProfiler beanCreationProfiler;
+
     /**
      * 刷新上下文的方法。
      *
@@ -21,20 +59,248 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
      */
     @Override
     public void refresh() throws BeansException {
-        // 1. 创建 BeanFactory，并加载 BeanDefinition
-        refreshBeanFactory();
+        ApplicationStartup applicationStartup = getApplicationStartup();
+        StartupStep refreshStep = applicationStartup.start("context.refresh");
+
+        // 0. 按上一次启动记录的类清单，在后台线程中预加载类
+        File classListFile = getStartupClassListFile();
+        List<String> recordedClassNames = readStartupClassList(classListFile);
+        ClassPreloader classPreloader = recordedClassNames.isEmpty() ? null : new ClassPreloader(recordedClassNames,
+                ClassUtils.getDefaultClassLoader(), Runtime.getRuntime().availableProcessors(), Boolean.getBoolean(ClassPreloader.INITIALIZE_PROPERTY)).start();
+        try {
+            // 1. 创建 BeanFactory，并加载 BeanDefinition
+            StartupStep step = applicationStartup.start("context.refresh-bean-factory");
+            try {
+                refreshBeanFactory();
+            } finally {
+                step.end();
+            }
+
+            // 2. 获取 BeanFactory，配置启动步骤、运行指标和创建开销统计，需要记录类清单时通过记录器解析 Bean 类
+            ConfigurableListableBeanFactory beanFactory = getBeanFactory();
+            beanFactory.setApplicationStartup(applicationStartup);
+            if (isMetricsEnabled()) {
+                BeanFactoryMetrics metrics = new BeanFactoryMetrics();
+                beanFactory.setBeanFactoryMetrics(metrics);
+                registerMetricsMBean(metrics);
+            }
+            File profileFile = getBeanCreationProfileFile();
+            BeanCreationProfiler profiler = profileFile != null ? new BeanCreationProfiler() : null;
+            beanFactory.setBeanCreationProfiler(profiler);
+            ClassLoadingRecorder recorder = null;
+            if (classListFile != null) {
+                recorder = new ClassLoadingRecorder(beanFactory.getBeanClassLoader());
+                beanFactory.setBeanClassLoader(recorder);
+            }
+
+            // 3. 在 Bean 实例化之前，执行 BeanFactoryPostProcessor
+            step = applicationStartup.start("context.bean-factory.post-process");
+            try {
+                invokeBeanFactoryPostProcessors(beanFactory);
+            } finally {
+                step.end();
+            }
+
+            // 4. BeanPostProcessor 需要在其他 Bean 对象实例化之前执行注册操作
+            step = applicationStartup.start("context.beans.post-process");
+            try {
+                registerBeanPostProcessors(beanFactory);
+            } finally {
+                step.end();
+            }
+
+            // 5. 冻结配置，之后的单例查找走只读索引
+            beanFactory.freezeConfiguration();
+
+            // 6. 提前实例化单例 Bean 对象
+            step = applicationStartup.start("context.beans.pre-instantiate");
+            try {
+                beanFactory.preInstantiateSingletons();
+            } finally {
+                step.end();
+            }
+
+            // 7. 停止统计 Bean 创建开销，输出按 self CPU 时间和 self 分配排序的报告
+            if (profiler != null) {
+                beanFactory.setBeanCreationProfiler(null);
+                beanCreationProfiler = profiler;
+                writeBeanCreationProfile(profileFile, profiler);
+            }
+
+            // 8. 记录本次启动加载的类，供下一次启动预加载
+            if (recorder != null) {
+                beanFactory.setBeanClassLoader(recorder.getParent());
+                writeStartupClassList(classListFile, recordedClassNames, recorder, beanFactory);
+            }
+        } catch (RuntimeException | Error e) {
+            // 刷新失败时注销本次注册的 MBean，避免平台 MBeanServer 继续引用已失效的 BeanFactory
+            unregisterMetricsMBean();
+            throw e;
+        } finally {
+            if (classPreloader != null) {
+                classPreloader.stop();
+            }
+            refreshStep.end();
+        }
+    }
+
+    @Override
+    public void close() {
+        unregisterMetricsMBean();
+    }
+
+    /**
+     * 是否统计运行指标，默认由系统属性 small-spring.metrics.jmx 决定。
+     *
+     * @return 如果开启则返回 true
+     */
+    protected boolean isMetricsEnabled() {
+        return Boolean.getBoolean(METRICS_PROPERTY);
+    }
+
+    /**
+     * 获取运行指标 MBean 的名称，默认按上下文类名和实例区分，同一个进程中的多个上下文各自注册。
+     *
+     * @return MBean 名称
+     * @throws JMException 如果名称不合法
+     */
+    protected ObjectName getMetricsObjectName() throws JMException {
+        return new ObjectName("com.valyn.springframework:type=BeanFactoryMetrics,context="
+                + ObjectName.quote(getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(this))));
+    }
+
+    private void registerMetricsMBean(BeanFactoryMetrics metrics) {
+        // 重复刷新时替换上一次注册的 MBean
+        unregisterMetricsMBean();
+        try {
+            ObjectName objectName = getMetricsObjectName();
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, objectName);
+            metricsObjectName = objectName;
+        } catch (JMException e) {
+            throw new BeansException("Failed to register bean factory metrics MBean", e);
+        }
+    }
+
+    private void unregisterMetricsMBean() {
+        if (metricsObjectName == null) {
+            return;
+        }
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (mBeanServer.isRegistered(metricsObjectName)) {
+                mBeanServer.unregisterMBean(metricsObjectName);
+            }
+        } catch (JMException ignored) {
+            // 已被其他代码注销
+        } finally {
+            metricsObjectName = null;
+        }
+    }
+
+    @Override
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup != null ? applicationStartup : ApplicationStartup.DEFAULT;
+    }
+
+    /**
+     * 获取记录启动步骤的 ApplicationStartup。未设置时由系统属性 small-spring.application-startup 决定，
+     * 值为 jfr 时记录为 JFR 事件，否则使用不记录的 ApplicationStartup.DEFAULT。
+     *
+     * @return 启动步骤记录器
+     */
+    @Override
+    public ApplicationStartup getApplicationStartup() {
+        if (applicationStartup == null) {
+            applicationStartup = createDefaultApplicationStartup();
+        }
+        return applicationStartup;
+    }
+
+    private static ApplicationStartup createDefaultApplicationStartup() {
+        if (!"jfr".equalsIgnoreCase(System.getProperty(APPLICATION_STARTUP_PROPERTY, "").trim())) {
+            return ApplicationStartup.DEFAULT;
+        }
+        // 反射创建，未开启时不加载 jdk.jfr 中的类；构建时没有启用 jfr profile 或运行时没有 JFR 时回退到空实现
+        try {
+            Class<?> clazz = Class.forName(FLIGHT_RECORDER_APPLICATION_STARTUP_CLASS, true, AbstractApplicationContext.class.getClassLoader());
+            return (ApplicationStartup) clazz.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return ApplicationStartup.DEFAULT;
+        }
+    }
+
+    /**
+     * 获取启动类清单文件，默认由系统属性 small-spring.startup-class-list 指定，未指定时不预加载也不记录。
+     *
+     * @return 类清单文件，未开启时返回 null
+     */
+    protected File getStartupClassListFile() {
+        String path = System.getProperty(ClassPreloader.CLASS_LIST_PROPERTY);
+        return path == null || path.trim().isEmpty() ? null : new File(path.trim());
+    }
 
-        // 2. 获取 BeanFactory
-        ConfigurableListableBeanFactory beanFactory = getBeanFactory();
+    /**
+     * 获取 Bean 创建开销报告文件，默认由系统属性 small-spring.bean-creation-profile 指定，未指定时不统计。
+     *
+     * @return 报告文件，未开启时返回 null
+     */
+    protected File getBeanCreationProfileFile() {
+        String path = System.getProperty(BEAN_CREATION_PROFILE_PROPERTY);
+        return path == null || path.trim().isEmpty() ? null : new File(path.trim());
+    }
+
+    /**
+     * 获取最近一次刷新的 Bean 创建开销统计结果。
+     *
+     * @return 统计器，未开启时返回 null
+     */
+    public BeanCreationProfiler getBeanCreationProfiler() {
+        return beanCreationProfiler;
+    }
 
-        // 3. 在 Bean 实例化之前，执行 BeanFactoryPostProcessor
-        invokeBeanFactoryPostProcessors(beanFactory);
+    private void writeBeanCreationProfile(File profileFile, BeanCreationProfiler profiler) {
+        try {
+            File directory = profileFile.getAbsoluteFile().getParentFile();
+            if (directory.isDirectory() || directory.mkdirs()) {
+                Files.write(profileFile.toPath(), profiler.toJson().getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            // 报告只用于诊断，写入失败不影响启动
+        }
+    }
 
-        // 4. BeanPostProcessor 需要在其他 Bean 对象实例化之前执行注册操作
-        registerBeanPostProcessors(beanFactory);
+    private List<String> readStartupClassList(File classListFile) {
+        if (classListFile == null) {
+            return Collections.emptyList();
+        }
+        try {
+            return ClassPreloader.readClassList(classListFile);
+        } catch (IOException e) {
+            // 类清单只是加速手段，读取失败时正常启动
+            return Collections.emptyList();
+        }
+    }
 
-        // 5. 提前实例化单例 Bean 对象
-        beanFactory.preInstantiateSingletons();
+    private void writeStartupClassList(File classListFile, List<String> previous, ClassLoadingRecorder recorder,
+                                       ConfigurableListableBeanFactory beanFactory) {
+        // 通过 Class 对象直接注册的 BeanDefinition 不经过记录器，按注册顺序补充在后面
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+            if (beanDefinition.hasBeanClass()) {
+                recorder.record(beanDefinition.getBeanClassName());
+            }
+        }
+        // 记录器只能看到 Bean 类本身，Bean 类引用的类型由父类加载器加载，需要沿类型结构补充
+        recorder.recordReferencedTypes();
+        List<String> classNames = recorder.getClassNames();
+        if (classNames.equals(previous)) {
+            return;
+        }
+        try {
+            ClassPreloader.writeClassList(classListFile, classNames);
+        } catch (IOException e) {
+            // 类清单只是加速手段，写入失败不影响启动
+        }
     }
 
     /**
@@ -58,13 +324,16 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
      */
     private void invokeBeanFactoryPostProcessors(ConfigurableListableBeanFactory beanFactory) {
         Map<String, BeanFactoryPostProcessor> beanFactoryPostProcessorMap = beanFactory.getBeansOfType(BeanFactoryPostProcessor.class);
-        for (BeanFactoryPostProcessor beanFactoryPostProcessor : beanFactoryPostProcessorMap.values()) {
+        // 按 PriorityOrdered、Ordered 和注册顺序执行
+        List<BeanFactoryPostProcessor> beanFactoryPostProcessors = new ArrayList<>(beanFactoryPostProcessorMap.values());
+        OrderComparator.sort(beanFactoryPostProcessors);
+        for (BeanFactoryPostProcessor beanFactoryPostProcessor : beanFactoryPostProcessors) {
             beanFactoryPostProcessor.postProcessBeanFactory(beanFactory);
         }
     }
 
     /**
-     * 注册 BeanPostProcessor 的方法。
+     * 注册 BeanPostProcessor 的方法。处理器按注册顺序交给 BeanFactory，由 BeanFactory 按 Ordered 排序。
      *
      * @param beanFactory BeanFactory 对象
      */
@@ -88,6 +357,17 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
         return getBeanFactory().getBeansOfType(type);
     }
 
+    /**
+     * 获取指定类型的所有 Bean 名称。
+     *
+     * @param type Bean 对象的类型
+     * @return 指定类型的所有 Bean 名称
+     */
+    @Override
+    public String[] getBeanNamesForType(Class<?> type) {
+        return getBeanFactory().getBeanNamesForType(type);
+    }
+
     /**
      * 获取所有 Bean 定义的名称。
      *
@@ -137,4 +417,55 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
         return getBeanFactory().getBean(name, requiredType);
     }
 
+    /**
+     * 根据类型获取唯一匹配的 Bean 对象。
+     *
+     * @param requiredType Bean 的类型
+     * @param <T>          Bean 的类型
+     * @return 对应类型的 Bean 对象
+     * @throws BeansException 如果没有匹配的 Bean 或匹配的 Bean 不止一个
+     */
+    @Override
+    public <T> T getBean(Class<T> requiredType) throws BeansException {
+        return getBeanFactory().getBean(requiredType);
+    }
+
+    /**
+     * 返回指定类型 Bean 的提供者。
+     *
+     * @param requiredType Bean 的类型
+     * @param <T>          Bean 的类型
+     * @return 对应类型的 ObjectProvider
+     */
+    @Override
+    public <T> ObjectProvider<T> getBeanProvider(Class<T> requiredType) {
+        return getBeanFactory().getBeanProvider(requiredType);
+    }
+
+    /**
+     * 返回指定名称 Bean 的句柄。
+     *
+     * @param name Bean 的名称
+     * @return 对应的 BeanHandle
+     * @throws BeansException 如果不存在该名称的 Bean
+     */
+    @Override
+    public BeanHandle<Object> getBeanHandle(String name) throws BeansException {
+        return getBeanFactory().getBeanHandle(name);
+    }
+
+    /**
+     * 返回指定名称和类型 Bean 的句柄。
+     *
+     * @param name         Bean 的名称
+     * @param requiredType Bean 的类型
+     * @param <T>          Bean 的类型
+     * @return 对应的 BeanHandle
+     * @throws BeansException 如果不存在该名称的 Bean
+     */
+    @Override
+    public <T> BeanHandle<T> getBeanHandle(String name, Class<T> requiredType) throws BeansException {
+        return getBeanFactory().getBeanHandle(name, requiredType);
+    }
+
 }
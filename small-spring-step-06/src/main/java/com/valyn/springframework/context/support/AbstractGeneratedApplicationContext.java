@@ -0,0 +1,30 @@
+package com.valyn.springframework.context.support;
+
+import com.valyn.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+/**
+ * 预生成代码的应用上下文基类，继承了 AbstractRefreshableApplicationContext 类。
+ *
+ * 子类由 ApplicationContextSourceGenerator 在构建期根据 XML 配置生成，直接在代码中注册 BeanDefinition，
+ * 并通过实例提供者用 new 和 setter 调用创建、装配 Bean，启动时不解析 XML，也不通过反射实例化和注入。
+ */
+public abstract class AbstractGeneratedApplicationContext extends AbstractRefreshableApplicationContext {
+
+    /**
+     * 加载 Bean 定义到 BeanFactory 中的方法，实现了抽象方法 loadBeanDefinitions()。
+     *
+     * @param beanFactory BeanFactory 对象
+     */
+    @Override
+    protected void loadBeanDefinitions(DefaultListableBeanFactory beanFactory) {
+        registerBeanDefinitions(beanFactory);
+    }
+
+    /**
+     * 注册预生成的 BeanDefinition，由生成的子类实现。
+     *
+     * @param beanFactory BeanFactory 对象
+     */
+    protected abstract void registerBeanDefinitions(DefaultListableBeanFactory beanFactory);
+
+}
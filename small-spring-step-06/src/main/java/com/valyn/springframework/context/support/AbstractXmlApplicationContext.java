@@ -3,11 +3,16 @@ package com.valyn.springframework.context.support;
 import com.valyn.springframework.beans.factory.support.DefaultListableBeanFactory;
 import com.valyn.springframework.beans.factory.xml.XmlBeanDefinitionReader;
 
+import java.util.concurrent.Executor;
+
 /**
  * 抽象的 XML 应用上下文类，继承了 AbstractRefreshableApplicationContext 类。
  */
 public abstract class AbstractXmlApplicationContext extends AbstractRefreshableApplicationContext {
 
+    /** 并行解析多个配置文件使用的执行器，为 null 时逐个加载 */
+    private Executor parseExecutor;
+
     /**
      * 加载 Bean 定义到 BeanFactory 中的方法，实现了抽象方法 loadBeanDefinitions()。
      *
@@ -16,7 +21,7 @@ public abstract class AbstractXmlApplicationContext extends AbstractRefreshableA
     @Override
     protected void loadBeanDefinitions(DefaultListableBeanFactory beanFactory) {
         // 创建一个 XmlBeanDefinitionReader 对象，用于读取 XML 配置文件中的 Bean 定义
-        XmlBeanDefinitionReader beanDefinitionReader = new XmlBeanDefinitionReader(beanFactory, this);
+        XmlBeanDefinitionReader beanDefinitionReader = createBeanDefinitionReader(beanFactory);
         // 获取配置文件的位置数组
         String[] configLocations = getConfigLocations();
         if (configLocations != null) {
@@ -25,6 +30,37 @@ public abstract class AbstractXmlApplicationContext extends AbstractRefreshableA
         }
     }
 
+    /**
+     * 创建读取 XML 配置的 BeanDefinition 读取器，子类可以覆盖此方法改用 StaxXmlBeanDefinitionReader 等实现。
+     *
+     * @param beanFactory BeanFactory 对象
+     * @return XmlBeanDefinitionReader 对象
+     */
+    protected XmlBeanDefinitionReader createBeanDefinitionReader(DefaultListableBeanFactory beanFactory) {
+        XmlBeanDefinitionReader beanDefinitionReader = new XmlBeanDefinitionReader(beanFactory, this);
+        beanDefinitionReader.setParseExecutor(getParseExecutor());
+        return beanDefinitionReader;
+    }
+
+    /**
+     * 设置并行解析多个配置文件使用的执行器，下一次刷新时生效。默认为 null，逐个加载。
+     * 无论是否并行，BeanDefinition 都按配置文件的顺序注册，见 XmlBeanDefinitionReader#loadBeanDefinitions(Resource...)。
+     *
+     * @param parseExecutor 执行器
+     */
+    public void setParseExecutor(Executor parseExecutor) {
+        this.parseExecutor = parseExecutor;
+    }
+
+    /**
+     * 获取并行解析多个配置文件使用的执行器。
+     *
+     * @return 执行器，未设置时返回 null
+     */
+    public Executor getParseExecutor() {
+        return parseExecutor;
+    }
+
     /**
      * 获取配置文件的位置数组的抽象方法，需要子类去实现。
      *
@@ -0,0 +1,122 @@
+package com.valyn.springframework.context.support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ClassLoadingRecorder 是一个只做委派的类加载器，它把所有加载请求交给父类加载器，并按第一次请求的顺序记录类名。
+ * 上下文刷新期间把它设置为 BeanFactory 的 Bean 类加载器，就能得到启动过程中解析的 Bean 类清单。
+ *
+ * 这些 Bean 类引用的其他类由父类加载器定义，不会经过记录器，因此刷新结束后还需要调用 recordReferencedTypes，
+ * 沿父类、接口以及字段、构造函数和方法签名中的类型补充记录。只在方法体内部使用的类（局部变量、静态调用等）
+ * 无法通过反射发现，不会出现在清单中；JDK 自带的类由启动类加载器加载，也不记录。
+ */
+public class ClassLoadingRecorder extends ClassLoader {
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    private final Set<String> classNames = new LinkedHashSet<>();
+
+    /**
+     * 创建记录器。
+     *
+     * @param parent 实际加载类的父类加载器
+     */
+    public ClassLoadingRecorder(ClassLoader parent) {
+        super(parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        Class<?> clazz = super.loadClass(name, resolve);
+        record(name);
+        return clazz;
+    }
+
+    /**
+     * 记录一个类名，已记录的类名保持原来的位置。
+     *
+     * @param className 类名
+     */
+    public void record(String className) {
+        synchronized (classNames) {
+            classNames.add(className);
+        }
+    }
+
+    /**
+     * 从已记录的类出发，沿父类、接口以及字段、构造函数和方法签名中出现的类型逐层补充记录，
+     * 新发现的类按发现顺序追加在清单后面。无法加载或链接的类会被跳过。
+     */
+    public void recordReferencedTypes() {
+        Deque<Class<?>> pending = new ArrayDeque<>();
+        for (String className : getClassNames()) {
+            try {
+                pending.add(Class.forName(className, false, getParent()));
+            } catch (ClassNotFoundException | LinkageError ignored) {
+                // 类已删除或改名，保持原有记录
+            }
+        }
+        Set<Class<?>> visited = new HashSet<>();
+        while (!pending.isEmpty()) {
+            Class<?> clazz = pending.poll();
+            if (!visited.add(clazz)) continue;
+            record(clazz.getName());
+            try {
+                enqueue(pending, clazz.getSuperclass());
+                for (Class<?> type : clazz.getInterfaces()) {
+                    enqueue(pending, type);
+                }
+                for (Field field : clazz.getDeclaredFields()) {
+                    enqueue(pending, field.getType());
+                }
+                for (Constructor<?> constructor : clazz.getDeclaredConstructors()) {
+                    for (Class<?> type : constructor.getParameterTypes()) {
+                        enqueue(pending, type);
+                    }
+                }
+                for (Method method : clazz.getDeclaredMethods()) {
+                    enqueue(pending, method.getReturnType());
+                    for (Class<?> type : method.getParameterTypes()) {
+                        enqueue(pending, type);
+                    }
+                }
+            } catch (LinkageError ignored) {
+                // 签名中引用的类缺失时只记录已经发现的部分
+            }
+        }
+    }
+
+    private static void enqueue(Deque<Class<?>> pending, Class<?> type) {
+        while (type != null && type.isArray()) {
+            type = type.getComponentType();
+        }
+        // 基本类型、JDK 自带的类和运行时生成的类（CGLIB 子类等）无需预加载
+        if (type == null || type.isPrimitive() || type.getClassLoader() == null || type.getName().contains("$$")) {
+            return;
+        }
+        pending.add(type);
+    }
+
+    /**
+     * 获取按第一次加载顺序排列的类名。
+     *
+     * @return 类名列表
+     */
+    public List<String> getClassNames() {
+        synchronized (classNames) {
+            return new ArrayList<>(classNames);
+        }
+    }
+
+}
@@ -2,6 +2,8 @@ package com.valyn.springframework.context.support;
 
 import com.valyn.springframework.beans.BeansException;
 
+import java.util.concurrent.Executor;
+
 /**
  * 基于类路径的 XML 应用上下文类，继承了 AbstractXmlApplicationContext 类。
  */
@@ -32,7 +34,19 @@ public class ClassPathXmlApplicationContext extends AbstractXmlApplicationContex
      * @throws BeansException 如果刷新上下文失败抛出此异常
      */
     public ClassPathXmlApplicationContext(String[] configLocations) throws BeansException {
+        this(configLocations, null);
+    }
+
+    /**
+     * 从 XML 中加载 BeanDefinition，并刷新上下文，多个配置文件使用指定的执行器并行解析。
+     *
+     * @param configLocations 配置文件的位置数组
+     * @param parseExecutor   并行解析配置文件使用的执行器，为 null 时逐个加载
+     * @throws BeansException 如果刷新上下文失败抛出此异常
+     */
+    public ClassPathXmlApplicationContext(String[] configLocations, Executor parseExecutor) throws BeansException {
         this.configLocations = configLocations;
+        setParseExecutor(parseExecutor);
         refresh();
     }
 
@@ -0,0 +1,172 @@
+package com.valyn.springframework.context.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ClassPreloader 根据上一次启动记录的类清单，在后台线程中并行加载并链接这些类，让主线程解析 XML 的同时完成类加载。
+ *
+ * 类清单是 UTF-8 文本文件，每行一个类的全限定名，按启动时第一次加载的顺序排列，以 # 开头的行是注释。
+ * 多个后台线程从同一个位置计数器依次领取下一个类，因此类大致按记录的顺序加载。加载失败的类（已删除、改名等）会被忽略，
+ * 主线程需要时仍会按正常流程加载并报告错误。
+ *
+ * 默认只加载和链接，不执行静态初始化，静态初始化仍在主线程第一次创建实例时按原来的顺序执行；
+ * 开启 initialize 后静态初始化也在后台线程中并行执行，只适用于静态初始化之间没有顺序依赖的应用。
+ */
+public class ClassPreloader {
+
+    /** 指定类清单文件的系统属性，设置后上下文刷新时使用并更新该清单 */
+    public static final String CLASS_LIST_PROPERTY = "small-spring.startup-class-list";
+
+    /** 是否在预加载时执行静态初始化的系统属性 */
+    public static final String INITIALIZE_PROPERTY = "small-spring.startup-class-list.initialize";
+
+    private final List<String> classNames;
+
+    private final ClassLoader classLoader;
+
+    private final boolean initialize;
+
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    private final AtomicInteger loadedCount = new AtomicInteger();
+
+    private final CountDownLatch finished;
+
+    private final Thread[] workers;
+
+    /**
+     * 创建预加载器，调用 start() 后才开始加载。
+     *
+     * @param classNames  要加载的类名，按加载顺序排列
+     * @param classLoader 加载类使用的类加载器
+     * @param threads     后台线程数
+     * @param initialize  是否执行静态初始化
+     */
+    public ClassPreloader(List<String> classNames, ClassLoader classLoader, int threads, boolean initialize) {
+        this.classNames = new ArrayList<>(classNames);
+        this.classLoader = classLoader;
+        this.initialize = initialize;
+        int workerCount = Math.max(1, Math.min(threads, this.classNames.size()));
+        this.finished = new CountDownLatch(workerCount);
+        this.workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Thread(this::preload, "class-preloader-" + (i + 1));
+            workers[i].setDaemon(true);
+        }
+    }
+
+    /**
+     * 启动后台线程。
+     *
+     * @return 当前预加载器
+     */
+    public ClassPreloader start() {
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        return this;
+    }
+
+    /**
+     * 停止领取新的类，正在加载的类会继续完成。
+     */
+    public void stop() {
+        nextIndex.set(classNames.size());
+    }
+
+    /**
+     * 等待所有后台线程结束。
+     *
+     * @param timeout 最长等待时间
+     * @param unit    时间单位
+     * @return 如果所有线程都已结束则返回 true
+     * @throws InterruptedException 如果等待时被中断
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return finished.await(timeout, unit);
+    }
+
+    /**
+     * 获取已成功加载的类数量。
+     *
+     * @return 已加载的类数量
+     */
+    public int getLoadedCount() {
+        return loadedCount.get();
+    }
+
+    private void preload() {
+        try {
+            int index;
+            while ((index = nextIndex.getAndIncrement()) < classNames.size()) {
+                try {
+                    Class<?> clazz = Class.forName(classNames.get(index), initialize, classLoader);
+                    // 反射获取构造函数会触发类的链接（校验、准备），也预热了实例化时需要的反射数据
+                    clazz.getDeclaredConstructors();
+                    loadedCount.incrementAndGet();
+                } catch (ClassNotFoundException | LinkageError | SecurityException ignored) {
+                    // 清单过期时忽略，主线程需要时会正常报告错误
+                }
+            }
+        } finally {
+            finished.countDown();
+        }
+    }
+
+    /**
+     * 读取类清单文件。
+     *
+     * @param file 类清单文件
+     * @return 类名列表，文件不存在时返回空列表
+     * @throws IOException 如果读取失败
+     */
+    public static List<String> readClassList(File file) throws IOException {
+        if (!file.isFile()) {
+            return Collections.emptyList();
+        }
+        List<String> classNames = new ArrayList<>();
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            String className = line.trim();
+            if (!className.isEmpty() && !className.startsWith("#")) {
+                classNames.add(className);
+            }
+        }
+        return classNames;
+    }
+
+    /**
+     * 写入类清单文件，先写临时文件再原子替换。
+     *
+     * @param file       类清单文件
+     * @param classNames 按加载顺序排列的类名
+     * @throws IOException 如果写入失败
+     */
+    public static void writeClassList(File file, Collection<String> classNames) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        List<String> lines = new ArrayList<>(classNames.size() + 1);
+        lines.add("# Classes loaded during application context refresh, in load order");
+        lines.addAll(classNames);
+        File tempFile = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            Files.write(tempFile.toPath(), lines, StandardCharsets.UTF_8);
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+}
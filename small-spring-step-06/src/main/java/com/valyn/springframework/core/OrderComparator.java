@@ -0,0 +1,47 @@
+package com.valyn.springframework.core;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * OrderComparator 按 PriorityOrdered、Ordered、其他对象的分组以及排序值比较对象。
+ * 没有实现 Ordered 的对象视为 LOWEST_PRECEDENCE。排序值相同的对象保持原来的相对顺序（List.sort 是稳定排序），
+ * 因此只要输入顺序确定，排序结果也是确定的。
+ */
+public class OrderComparator implements Comparator<Object> {
+
+    /** 共享的实例 */
+    public static final OrderComparator INSTANCE = new OrderComparator();
+
+    @Override
+    public int compare(Object o1, Object o2) {
+        boolean p1 = o1 instanceof PriorityOrdered;
+        boolean p2 = o2 instanceof PriorityOrdered;
+        if (p1 != p2) {
+            return p1 ? -1 : 1;
+        }
+        return Integer.compare(getOrder(o1), getOrder(o2));
+    }
+
+    /**
+     * 获取对象的排序值。
+     *
+     * @param obj 对象
+     * @return 排序值，没有实现 Ordered 时返回 LOWEST_PRECEDENCE
+     */
+    protected int getOrder(Object obj) {
+        return obj instanceof Ordered ? ((Ordered) obj).getOrder() : Ordered.LOWEST_PRECEDENCE;
+    }
+
+    /**
+     * 使用共享实例对列表进行稳定排序。
+     *
+     * @param list 要排序的列表
+     */
+    public static void sort(List<?> list) {
+        if (list.size() > 1) {
+            list.sort(INSTANCE);
+        }
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.valyn.springframework.core;
+
+/**
+ * Ordered 接口表示对象有一个排序值，排序值越小越先执行。
+ * 用于 BeanPostProcessor、BeanFactoryPostProcessor 等需要确定执行顺序的组件。
+ */
+public interface Ordered {
+
+    /** 最高优先级 */
+    int HIGHEST_PRECEDENCE = Integer.MIN_VALUE;
+
+    /** 最低优先级，没有实现 Ordered 的对象也按此值排序 */
+    int LOWEST_PRECEDENCE = Integer.MAX_VALUE;
+
+    /**
+     * 获取排序值。
+     *
+     * @return 排序值，越小越先执行
+     */
+    int getOrder();
+
+}
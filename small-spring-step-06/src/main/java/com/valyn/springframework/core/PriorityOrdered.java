@@ -0,0 +1,9 @@
+package com.valyn.springframework.core;
+
+/**
+ * PriorityOrdered 是优先级更高的 Ordered：实现了此接口的对象总是排在只实现 Ordered 的对象之前，
+ * 同一组内再按排序值排序。
+ */
+public interface PriorityOrdered extends Ordered {
+
+}
@@ -0,0 +1,22 @@
+package com.valyn.springframework.core.metrics;
+
+/**
+ * ApplicationStartup 用于记录启动过程中的步骤，ApplicationContext 和 BeanFactory 在每个刷新阶段以及
+ * 每个 Bean 的实例化、属性填充、初始化阶段开始一个 StartupStep。
+ *
+ * 默认实现 DEFAULT 什么也不记录，开始步骤只返回一个共享的空步骤，不分配对象。
+ */
+public interface ApplicationStartup {
+
+    /** 默认的空实现 */
+    ApplicationStartup DEFAULT = new DefaultApplicationStartup();
+
+    /**
+     * 开始一个步骤。
+     *
+     * @param name 步骤名称
+     * @return 开始的步骤，调用方必须在同一个线程中调用 end()
+     */
+    StartupStep start(String name);
+
+}
@@ -0,0 +1,121 @@
+package com.valyn.springframework.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BeanCreationProfile 累计一个 Bean 的创建开销。self 指标不包含创建过程中嵌套创建依赖 Bean 的开销，
+ * total 指标包含。同一个 Bean 创建多次（原型、池化等）时累加。
+ *
+ * CPU 时间和分配字节数来自当前线程的 ThreadMXBean 采样，JVM 不支持时对应的值为 -1。
+ */
+public class BeanCreationProfile {
+
+    private final String beanName;
+
+    private final boolean cpuTimeSupported;
+
+    private final boolean allocationSupported;
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder selfWallNanos = new LongAdder();
+
+    private final LongAdder totalWallNanos = new LongAdder();
+
+    private final LongAdder selfCpuNanos = new LongAdder();
+
+    private final LongAdder totalCpuNanos = new LongAdder();
+
+    private final LongAdder selfAllocatedBytes = new LongAdder();
+
+    private final LongAdder totalAllocatedBytes = new LongAdder();
+
+    BeanCreationProfile(String beanName, boolean cpuTimeSupported, boolean allocationSupported) {
+        this.beanName = beanName;
+        this.cpuTimeSupported = cpuTimeSupported;
+        this.allocationSupported = allocationSupported;
+    }
+
+    void record(long selfWall, long totalWall, long selfCpu, long totalCpu, long selfAllocated, long totalAllocated) {
+        count.increment();
+        selfWallNanos.add(selfWall);
+        totalWallNanos.add(totalWall);
+        selfCpuNanos.add(selfCpu);
+        totalCpuNanos.add(totalCpu);
+        selfAllocatedBytes.add(selfAllocated);
+        totalAllocatedBytes.add(totalAllocated);
+    }
+
+    /**
+     * 获取 Bean 的名称。
+     *
+     * @return Bean 的名称
+     */
+    public String getBeanName() {
+        return beanName;
+    }
+
+    /**
+     * 获取创建次数。
+     *
+     * @return 创建次数
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 获取不含依赖 Bean 的创建耗时。
+     *
+     * @return 耗时，单位纳秒
+     */
+    public long getSelfWallNanos() {
+        return selfWallNanos.sum();
+    }
+
+    /**
+     * 获取包含依赖 Bean 的创建耗时。
+     *
+     * @return 耗时，单位纳秒
+     */
+    public long getTotalWallNanos() {
+        return totalWallNanos.sum();
+    }
+
+    /**
+     * 获取不含依赖 Bean 的线程 CPU 时间。
+     *
+     * @return CPU 时间，单位纳秒，不支持时返回 -1
+     */
+    public long getSelfCpuNanos() {
+        return cpuTimeSupported ? selfCpuNanos.sum() : -1;
+    }
+
+    /**
+     * 获取包含依赖 Bean 的线程 CPU 时间。
+     *
+     * @return CPU 时间，单位纳秒，不支持时返回 -1
+     */
+    public long getTotalCpuNanos() {
+        return cpuTimeSupported ? totalCpuNanos.sum() : -1;
+    }
+
+    /**
+     * 获取不含依赖 Bean 的分配字节数。
+     *
+     * @return 分配字节数，不支持时返回 -1
+     */
+    public long getSelfAllocatedBytes() {
+        return allocationSupported ? selfAllocatedBytes.sum() : -1;
+    }
+
+    /**
+     * 获取包含依赖 Bean 的分配字节数。
+     *
+     * @return 分配字节数，不支持时返回 -1
+     */
+    public long getTotalAllocatedBytes() {
+        return allocationSupported ? totalAllocatedBytes.sum() : -1;
+    }
+
+}
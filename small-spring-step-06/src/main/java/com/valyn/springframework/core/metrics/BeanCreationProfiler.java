@@ -0,0 +1,223 @@
+package com.valyn.springframework.core.metrics;
+
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * BeanCreationProfiler 统计每个 Bean 创建过程中当前线程消耗的 CPU 时间和分配的内存，用于找出构造函数或初始化方法
+ * 中分配大量缓存、占用大量 CPU 的 Bean。
+ *
+ * 创建开始和结束时各采样一次 ThreadMXBean 的线程 CPU 时间和线程分配字节数。每个线程维护一个创建栈，
+ * 嵌套创建的依赖 Bean 结束时把自己的总开销记到外层 Bean 上，外层 Bean 的 self 开销扣除这部分，
+ * 因此 self 指标只包含 Bean 自身的实例化、属性填充和初始化。
+ *
+ * 分配字节数需要 HotSpot 的 com.sun.management.ThreadMXBean，CPU 时间需要 JVM 支持线程 CPU 计时，
+ * 不支持时对应指标为 -1，排序退化为按耗时。
+ */
+public class BeanCreationProfiler {
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    private final com.sun.management.ThreadMXBean allocationMXBean;
+
+    private final boolean cpuTimeSupported;
+
+    private final ConcurrentMap<String, BeanCreationProfile> profiles = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Deque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public BeanCreationProfiler() {
+        boolean cpuTime = false;
+        try {
+            if (threadMXBean.isCurrentThreadCpuTimeSupported()) {
+                if (!threadMXBean.isThreadCpuTimeEnabled()) {
+                    threadMXBean.setThreadCpuTimeEnabled(true);
+                }
+                cpuTime = true;
+            }
+        } catch (UnsupportedOperationException | SecurityException ignored) {
+            // 不支持时只统计耗时
+        }
+        this.cpuTimeSupported = cpuTime;
+        this.allocationMXBean = createAllocationMXBean(threadMXBean);
+    }
+
+    private static com.sun.management.ThreadMXBean createAllocationMXBean(ThreadMXBean threadMXBean) {
+        try {
+            if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+                if (allocationMXBean.isThreadAllocatedMemorySupported()) {
+                    if (!allocationMXBean.isThreadAllocatedMemoryEnabled()) {
+                        allocationMXBean.setThreadAllocatedMemoryEnabled(true);
+                    }
+                    return allocationMXBean;
+                }
+            }
+        } catch (UnsupportedOperationException | SecurityException | LinkageError ignored) {
+            // 不支持时不统计分配
+        }
+        return null;
+    }
+
+    /**
+     * 开始统计一个 Bean 的创建，必须在同一个线程中以 end(Object) 结束。
+     *
+     * @param beanName Bean 的名称
+     * @return 传给 end(Object) 的统计标记
+     */
+    public Object begin(String beanName) {
+        Frame frame = new Frame(beanName, System.nanoTime(), currentCpuNanos(), currentAllocatedBytes());
+        frames.get().push(frame);
+        return frame;
+    }
+
+    /**
+     * 结束统计一个 Bean 的创建，创建失败时也应调用。
+     *
+     * @param token begin(String) 返回的统计标记
+     */
+    public void end(Object token) {
+        long wall = System.nanoTime();
+        long cpu = currentCpuNanos();
+        long allocated = currentAllocatedBytes();
+        Deque<Frame> stack = frames.get();
+        Frame frame = (Frame) token;
+        // 正常情况下栈顶就是当前 Bean，弹出时同时丢弃未正常结束的内层记录
+        Frame top;
+        do {
+            top = stack.poll();
+        } while (top != null && top != frame);
+
+        long totalWall = wall - frame.startWall;
+        long totalCpu = cpu - frame.startCpu;
+        long totalAllocated = allocated - frame.startAllocated;
+        Frame parent = stack.peek();
+        if (parent != null) {
+            parent.childWall += totalWall;
+            parent.childCpu += totalCpu;
+            parent.childAllocated += totalAllocated;
+        } else {
+            frames.remove();
+        }
+        BeanCreationProfile profile = profiles.get(frame.beanName);
+        if (profile == null) {
+            profile = profiles.computeIfAbsent(frame.beanName,
+                    name -> new BeanCreationProfile(name, cpuTimeSupported, allocationMXBean != null));
+        }
+        profile.record(totalWall - frame.childWall, totalWall, totalCpu - frame.childCpu, totalCpu,
+                totalAllocated - frame.childAllocated, totalAllocated);
+    }
+
+    /**
+     * 获取指定 Bean 的统计结果。
+     *
+     * @param beanName Bean 的名称
+     * @return 统计结果，没有创建记录时返回 null
+     */
+    public BeanCreationProfile getProfile(String beanName) {
+        return profiles.get(beanName);
+    }
+
+    /**
+     * 按 self CPU 时间从高到低排列所有 Bean，不支持 CPU 计时时按 self 耗时排列。
+     *
+     * @return 排好序的统计结果
+     */
+    public List<BeanCreationProfile> rankBySelfCpuTime() {
+        return rank(cpuTimeSupported ? Comparator.comparingLong(BeanCreationProfile::getSelfCpuNanos)
+                : Comparator.comparingLong(BeanCreationProfile::getSelfWallNanos));
+    }
+
+    /**
+     * 按 self 分配字节数从高到低排列所有 Bean，不支持分配统计时按 self 耗时排列。
+     *
+     * @return 排好序的统计结果
+     */
+    public List<BeanCreationProfile> rankBySelfAllocatedBytes() {
+        return rank(allocationMXBean != null ? Comparator.comparingLong(BeanCreationProfile::getSelfAllocatedBytes)
+                : Comparator.comparingLong(BeanCreationProfile::getSelfWallNanos));
+    }
+
+    private List<BeanCreationProfile> rank(Comparator<BeanCreationProfile> comparator) {
+        List<BeanCreationProfile> ranked = new ArrayList<>(profiles.values());
+        ranked.sort(comparator.reversed().thenComparing(BeanCreationProfile::getBeanName));
+        return ranked;
+    }
+
+    /**
+     * 生成 JSON 报告，包含按 self CPU 时间和按 self 分配字节数两种排序。
+     *
+     * @return JSON 字符串
+     */
+    public String toJson() {
+        JSONObject report = new JSONObject();
+        report.set("cpuTimeSupported", cpuTimeSupported);
+        report.set("allocationSupported", allocationMXBean != null);
+        report.set("bySelfCpuTime", toJson(rankBySelfCpuTime()));
+        report.set("bySelfAllocatedBytes", toJson(rankBySelfAllocatedBytes()));
+        return report.toStringPretty();
+    }
+
+    private static JSONArray toJson(List<BeanCreationProfile> profiles) {
+        JSONArray array = new JSONArray();
+        for (BeanCreationProfile profile : profiles) {
+            JSONObject item = new JSONObject();
+            item.set("beanName", profile.getBeanName());
+            item.set("count", profile.getCount());
+            item.set("selfCpuNanos", profile.getSelfCpuNanos());
+            item.set("totalCpuNanos", profile.getTotalCpuNanos());
+            item.set("selfAllocatedBytes", profile.getSelfAllocatedBytes());
+            item.set("totalAllocatedBytes", profile.getTotalAllocatedBytes());
+            item.set("selfWallNanos", profile.getSelfWallNanos());
+            item.set("totalWallNanos", profile.getTotalWallNanos());
+            array.add(item);
+        }
+        return array;
+    }
+
+    private long currentCpuNanos() {
+        return cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : 0;
+    }
+
+    private long currentAllocatedBytes() {
+        return allocationMXBean != null ? allocationMXBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    /**
+     * 当前线程上正在创建的一个 Bean。
+     */
+    private static final class Frame {
+
+        private final String beanName;
+
+        private final long startWall;
+
+        private final long startCpu;
+
+        private final long startAllocated;
+
+        private long childWall;
+
+        private long childCpu;
+
+        private long childAllocated;
+
+        Frame(String beanName, long startWall, long startCpu, long startAllocated) {
+            this.beanName = beanName;
+            this.startWall = startWall;
+            this.startCpu = startCpu;
+            this.startAllocated = startAllocated;
+        }
+    }
+
+}
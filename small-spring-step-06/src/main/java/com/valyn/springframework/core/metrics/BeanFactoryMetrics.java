@@ -0,0 +1,145 @@
+package com.valyn.springframework.core.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BeanFactoryMetrics 统计 BeanFactory 的运行指标：getBean 调用次数、单例缓存命中和未命中次数、
+ * 每个 Bean 的创建次数和创建耗时直方图。
+ *
+ * 所有计数都使用 LongAdder，getBean 热路径上的记录只是一次无锁的分段累加；
+ * 按 Bean 名称的统计对象在第一次创建该 Bean 时建立，之后只读取不修改映射。
+ */
+public class BeanFactoryMetrics implements BeanFactoryMetricsMXBean {
+
+    private final LongAdder getBeanCount = new LongAdder();
+
+    private final LongAdder singletonCacheHits = new LongAdder();
+
+    private final LongAdder singletonCacheMisses = new LongAdder();
+
+    private final ConcurrentMap<String, LatencyHistogram> creationLatencies = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次 getBean 调用。
+     */
+    public void recordGetBean() {
+        getBeanCount.increment();
+    }
+
+    /**
+     * 记录一次单例缓存命中。
+     */
+    public void recordSingletonCacheHit() {
+        singletonCacheHits.increment();
+    }
+
+    /**
+     * 记录一次单例缓存未命中。
+     */
+    public void recordSingletonCacheMiss() {
+        singletonCacheMisses.increment();
+    }
+
+    /**
+     * 记录一次 Bean 创建。
+     *
+     * @param beanName Bean 的名称
+     * @param nanos    创建耗时，单位纳秒
+     */
+    public void recordBeanCreation(String beanName, long nanos) {
+        LatencyHistogram histogram = creationLatencies.get(beanName);
+        if (histogram == null) {
+            histogram = creationLatencies.computeIfAbsent(beanName, name -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * 获取指定 Bean 的创建耗时直方图。
+     *
+     * @param beanName Bean 的名称
+     * @return 耗时直方图，没有创建记录时返回 null
+     */
+    public LatencyHistogram getCreationLatency(String beanName) {
+        return creationLatencies.get(beanName);
+    }
+
+    @Override
+    public long getGetBeanCount() {
+        return getBeanCount.sum();
+    }
+
+    @Override
+    public long getSingletonCacheHitCount() {
+        return singletonCacheHits.sum();
+    }
+
+    @Override
+    public long getSingletonCacheMissCount() {
+        return singletonCacheMisses.sum();
+    }
+
+    @Override
+    public long getBeanCreationCount() {
+        long count = 0;
+        for (LatencyHistogram histogram : creationLatencies.values()) {
+            count += histogram.getCount();
+        }
+        return count;
+    }
+
+    @Override
+    public Map<String, Long> getBeanCreationCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : creationLatencies.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().getCount());
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getAverageCreationTimeMillis() {
+        Map<String, Double> averages = new TreeMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : creationLatencies.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            long count = histogram.getCount();
+            averages.put(entry.getKey(), count == 0 ? 0 : histogram.getTotalNanos() / 1e6 / count);
+        }
+        return averages;
+    }
+
+    @Override
+    public Map<String, Double> getMaxCreationTimeMillis() {
+        Map<String, Double> maxima = new TreeMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : creationLatencies.entrySet()) {
+            maxima.put(entry.getKey(), entry.getValue().getMaxNanos() / 1e6);
+        }
+        return maxima;
+    }
+
+    @Override
+    public String[] getLatencyBucketLabels() {
+        return LatencyHistogram.getBucketLabels();
+    }
+
+    @Override
+    public long[] creationLatencyHistogram(String beanName) {
+        LatencyHistogram histogram = creationLatencies.get(beanName);
+        return histogram != null ? histogram.getBucketCounts() : null;
+    }
+
+    @Override
+    public void reset() {
+        getBeanCount.reset();
+        singletonCacheHits.reset();
+        singletonCacheMisses.reset();
+        for (LatencyHistogram histogram : creationLatencies.values()) {
+            histogram.reset();
+        }
+    }
+
+}
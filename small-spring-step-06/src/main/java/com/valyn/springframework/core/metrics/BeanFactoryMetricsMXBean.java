@@ -0,0 +1,79 @@
+package com.valyn.springframework.core.metrics;
+
+import java.util.Map;
+
+/**
+ * BeanFactoryMetricsMXBean 是 BeanFactoryMetrics 的 JMX 管理接口，可以在 JConsole、JMC 等工具中查看。
+ */
+public interface BeanFactoryMetricsMXBean {
+
+    /**
+     * 获取 getBean 的调用次数。
+     *
+     * @return 调用次数
+     */
+    long getGetBeanCount();
+
+    /**
+     * 获取在单例缓存中找到已创建实例的次数。
+     *
+     * @return 命中次数
+     */
+    long getSingletonCacheHitCount();
+
+    /**
+     * 获取请求单例 Bean 时缓存中还没有实例的次数。
+     *
+     * @return 未命中次数
+     */
+    long getSingletonCacheMissCount();
+
+    /**
+     * 获取所有 Bean 的创建次数之和。
+     *
+     * @return 创建次数
+     */
+    long getBeanCreationCount();
+
+    /**
+     * 获取每个 Bean 的创建次数。
+     *
+     * @return Bean 名称 -> 创建次数
+     */
+    Map<String, Long> getBeanCreationCounts();
+
+    /**
+     * 获取每个 Bean 的平均创建耗时，包含创建依赖的 Bean 所用的时间。
+     *
+     * @return Bean 名称 -> 平均耗时（毫秒）
+     */
+    Map<String, Double> getAverageCreationTimeMillis();
+
+    /**
+     * 获取每个 Bean 的最长创建耗时。
+     *
+     * @return Bean 名称 -> 最长耗时（毫秒）
+     */
+    Map<String, Double> getMaxCreationTimeMillis();
+
+    /**
+     * 获取耗时直方图各桶的说明。
+     *
+     * @return 各桶的说明
+     */
+    String[] getLatencyBucketLabels();
+
+    /**
+     * 获取指定 Bean 的创建耗时直方图。
+     *
+     * @param beanName Bean 的名称
+     * @return 各桶的计数，顺序与 getLatencyBucketLabels() 一致，没有创建记录时返回 null
+     */
+    long[] creationLatencyHistogram(String beanName);
+
+    /**
+     * 清空所有计数。
+     */
+    void reset();
+
+}
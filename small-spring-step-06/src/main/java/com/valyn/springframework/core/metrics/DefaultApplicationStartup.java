@@ -0,0 +1,40 @@
+package com.valyn.springframework.core.metrics;
+
+/**
+ * DefaultApplicationStartup 是不记录任何内容的 ApplicationStartup，所有步骤都是同一个空步骤。
+ */
+class DefaultApplicationStartup implements ApplicationStartup {
+
+    private static final StartupStep NOOP_STEP = new StartupStep() {
+
+        @Override
+        public String getName() {
+            return "noop";
+        }
+
+        @Override
+        public long getId() {
+            return 0;
+        }
+
+        @Override
+        public long getParentId() {
+            return -1;
+        }
+
+        @Override
+        public StartupStep tag(String key, String value) {
+            return this;
+        }
+
+        @Override
+        public void end() {
+        }
+    };
+
+    @Override
+    public StartupStep start(String name) {
+        return NOOP_STEP;
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.valyn.springframework.core.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram 是按 2 的幂划分桶的耗时直方图，第 i 个桶统计耗时小于 2^i 微秒（且不小于上一个桶上界）的次数，
+ * 最后一个桶统计所有更长的耗时。
+ *
+ * 每个桶是一个 LongAdder，记录时只做一次分段累加，不加锁，多个线程同时创建 Bean 时不会互相争用同一个缓存行。
+ */
+public class LatencyHistogram {
+
+    /** 有上界的桶数量，最大上界为 2^25 微秒（约 33 秒） */
+    private static final int BOUNDED_BUCKETS = 26;
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDED_BUCKETS + 1];
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 记录一次耗时。
+     *
+     * @param nanos 耗时，单位纳秒
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos) / 1000;
+        int index = Math.min(64 - Long.numberOfLeadingZeros(micros), BOUNDED_BUCKETS);
+        buckets[index].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * 获取每个桶的计数，顺序与 getBucketLabels() 一致。
+     *
+     * @return 各桶的计数
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * 获取记录次数。
+     *
+     * @return 记录次数
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 获取耗时总和。
+     *
+     * @return 耗时总和，单位纳秒
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * 获取最长耗时。
+     *
+     * @return 最长耗时，单位纳秒
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * 清空所有计数。
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    /**
+     * 获取各桶的说明，例如 "<1us"、"<2us"、">=33554432us"。
+     *
+     * @return 各桶的说明
+     */
+    public static String[] getBucketLabels() {
+        String[] labels = new String[BOUNDED_BUCKETS + 1];
+        for (int i = 0; i < BOUNDED_BUCKETS; i++) {
+            labels[i] = "<" + (1L << i) + "us";
+        }
+        labels[BOUNDED_BUCKETS] = ">=" + (1L << (BOUNDED_BUCKETS - 1)) + "us";
+        return labels;
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.valyn.springframework.core.metrics;
+
+/**
+ * StartupStep 表示启动过程中一个计时的步骤，从 ApplicationStartup#start 开始，到 end() 结束。
+ *
+ * 在同一个线程中，一个步骤开始后、结束前开始的步骤是它的子步骤，因此刷新阶段、Bean 的创建阶段以及创建过程中
+ * 依赖的其他 Bean 会形成一棵树。步骤必须在开始它的线程中结束。
+ */
+public interface StartupStep {
+
+    /**
+     * 获取步骤名称，例如 context.refresh、beans.instantiate。
+     *
+     * @return 步骤名称
+     */
+    String getName();
+
+    /**
+     * 获取步骤 ID，在同一个 ApplicationStartup 中唯一。
+     *
+     * @return 步骤 ID
+     */
+    long getId();
+
+    /**
+     * 获取父步骤的 ID。
+     *
+     * @return 父步骤 ID，没有父步骤时返回 -1
+     */
+    long getParentId();
+
+    /**
+     * 为步骤添加一个标签，例如 Bean 名称。
+     *
+     * @param key   标签名
+     * @param value 标签值
+     * @return 当前步骤
+     */
+    StartupStep tag(String key, String value);
+
+    /**
+     * 结束步骤。
+     */
+    void end();
+
+}
@@ -0,0 +1,58 @@
+package com.valyn.springframework.test;
+
+import com.valyn.springframework.context.support.ClassPathXmlApplicationContext;
+import com.valyn.springframework.core.metrics.ApplicationStartup;
+import com.valyn.springframework.core.metrics.jfr.FlightRecorderApplicationStartup;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 依赖 jdk.jfr 的测试，只在 jfr profile（JDK 11 及以上）中编译和运行。
+ */
+public class FlightRecorderApiTest {
+
+    @Test
+    public void test_flightRecorderApplicationStartup() throws Exception {
+        Assume.assumeTrue(FlightRecorder.isAvailable());
+        ApplicationStartup applicationStartup = new FlightRecorderApplicationStartup();
+        File recordingFile = Files.createTempFile("small-spring-startup", ".jfr").toFile();
+        try (Recording recording = new Recording()) {
+            recording.enable("com.valyn.springframework.StartupStep");
+            recording.start();
+            ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:spring.xml") {
+                @Override
+                public ApplicationStartup getApplicationStartup() {
+                    return applicationStartup;
+                }
+            };
+            Assert.assertNotNull(applicationContext.getBean("userService"));
+            recording.stop();
+            recording.dump(recordingFile.toPath());
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile.toPath());
+        Map<Long, RecordedEvent> eventsById = new HashMap<>();
+        for (RecordedEvent event : events) {
+            eventsById.put(event.getLong("eventId"), event);
+        }
+        RecordedEvent populate = events.stream()
+                .filter(event -> "beans.populate".equals(event.getString("name")) && "beanName=userService".equals(event.getString("tags")))
+                .findFirst().get();
+        Assert.assertEquals("beans.create", eventsById.get(populate.getLong("parentId")).getString("name"));
+        Assert.assertTrue(events.stream().anyMatch(event -> "context.refresh".equals(event.getString("name"))));
+        recordingFile.delete();
+    }
+
+}
@@ -1,13 +1,79 @@
 package com.valyn.springframework.test;
 
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.valyn.springframework.beans.BeansException;
+import com.valyn.springframework.beans.PropertyValue;
+import com.valyn.springframework.beans.factory.BeanHandle;
+import com.valyn.springframework.beans.factory.ConfigurableListableBeanFactory;
+import com.valyn.springframework.beans.factory.ObjectProvider;
+import com.valyn.springframework.beans.factory.config.BeanDefinition;
+import com.valyn.springframework.beans.factory.config.BeanPostProcessor;
+import com.valyn.springframework.beans.factory.config.BeanReference;
+import com.valyn.springframework.beans.factory.config.ConfigurableBeanFactory;
+import com.valyn.springframework.beans.factory.config.TargetedBeanPostProcessor;
+import com.valyn.springframework.beans.factory.support.CglibSubclassingInstantiationStrategy;
 import com.valyn.springframework.beans.factory.support.DefaultListableBeanFactory;
+import com.valyn.springframework.beans.factory.support.LazyResolutionProxyFactory;
+import com.valyn.springframework.beans.factory.support.MethodHandleInstantiationStrategy;
+import com.valyn.springframework.beans.factory.support.PropertyInjector;
+import com.valyn.springframework.beans.factory.support.ThreadScope;
+import com.valyn.springframework.beans.factory.xml.StaxXmlBeanDefinitionReader;
 import com.valyn.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import com.valyn.springframework.context.ApplicationContext;
+import com.valyn.springframework.context.aot.ApplicationContextSourceGenerator;
 import com.valyn.springframework.context.support.ClassPathXmlApplicationContext;
+import com.valyn.springframework.context.support.ClassPreloader;
+import com.valyn.springframework.core.Ordered;
+import com.valyn.springframework.core.PriorityOrdered;
+import com.valyn.springframework.core.io.FileSystemResource;
+import com.valyn.springframework.core.metrics.ApplicationStartup;
+import com.valyn.springframework.core.metrics.BeanCreationProfile;
+import com.valyn.springframework.core.metrics.BeanCreationProfiler;
+import com.valyn.springframework.core.metrics.BeanFactoryMetrics;
+import com.valyn.springframework.core.metrics.BeanFactoryMetricsMXBean;
+import com.valyn.springframework.core.metrics.StartupStep;
+import com.valyn.springframework.test.bean.UserDao;
 import com.valyn.springframework.test.bean.UserService;
 import com.valyn.springframework.test.common.MyBeanFactoryPostProcessor;
 import com.valyn.springframework.test.common.MyBeanPostProcessor;
+import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Constructor;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
 public class ApiTest {
 
     @Test
@@ -44,4 +110,1149 @@ public class ApiTest {
         System.out.println("测试结果：" + result);
     }
 
+    @Test
+    public void test_concurrentSingleton() throws Exception {
+        // 1.初始化 BeanFactory
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        reader.loadBeanDefinitions("classpath:spring.xml");
+
+        // 2. 多线程同时获取尚未创建的单例
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return beanFactory.getBean("userService");
+            }));
+        }
+        start.countDown();
+
+        // 3. 所有线程拿到的必须是同一个实例
+        Object first = futures.get(0).get();
+        for (Future<Object> future : futures) {
+            Assert.assertSame(first, future.get());
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void test_circularReferenceAcrossThreads() throws Exception {
+        // 1. a 依赖 b，b 依赖 a，两个线程分别开始创建 a 和 b，都进入实例化后才请求对方
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        CountDownLatch bothInCreation = new CountDownLatch(2);
+        BeanDefinition a = new BeanDefinition(UserDao.class);
+        a.setInstanceSupplier(() -> {
+            awaitQuietly(bothInCreation);
+            beanFactory.getBean("b");
+            return new UserDao();
+        });
+        BeanDefinition b = new BeanDefinition(UserDao.class);
+        b.setInstanceSupplier(() -> {
+            awaitQuietly(bothInCreation);
+            beanFactory.getBean("a");
+            return new UserDao();
+        });
+        beanFactory.registerBeanDefinition("a", a);
+        beanFactory.registerBeanDefinition("b", b);
+
+        // 2. 两个线程都以循环依赖失败，而不是互相等待
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> futureA = executor.submit(() -> beanFactory.getBean("a"));
+            Future<Object> futureB = executor.submit(() -> beanFactory.getBean("b"));
+            for (Future<Object> future : Arrays.asList(futureA, futureB)) {
+                try {
+                    future.get(10, TimeUnit.SECONDS);
+                    Assert.fail("expected circular reference");
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    while (cause.getCause() != null && !cause.getMessage().contains("currently in creation")) {
+                        cause = cause.getCause();
+                    }
+                    Assert.assertTrue(cause.getMessage(), cause.getMessage().contains("currently in creation"));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertFalse(beanFactory.isSingletonCurrentlyInCreation("a"));
+        Assert.assertFalse(beanFactory.isSingletonCurrentlyInCreation("b"));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    public void test_parallelPreInstantiateSingletons() throws Exception {
+        // 1.初始化 BeanFactory
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        reader.loadBeanDefinitions("classpath:spring.xml");
+
+        // 2. 使用线程池按依赖顺序并行预实例化单例
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        beanFactory.setPreInstantiationExecutor(executor);
+        beanFactory.preInstantiateSingletons();
+        executor.shutdown();
+
+        // 3. 所有单例已创建，且依赖注入的是同一个实例
+        UserService userService = (UserService) beanFactory.getSingleton("userService");
+        Assert.assertNotNull(userService);
+        Assert.assertSame(beanFactory.getSingleton("userDao"), userService.getUserDao());
+
+        // 4. 很长的依赖链不会在排序时栈溢出
+        DefaultListableBeanFactory chainFactory = new DefaultListableBeanFactory();
+        chainFactory.setInstantiationStrategy(new MethodHandleInstantiationStrategy());
+        int chainLength = 10000;
+        // 先注册依赖链的末端，排序时需要从第一个 Bean 一直走到链的起点
+        for (int i = chainLength - 1; i >= 0; i--) {
+            BeanDefinition beanDefinition = new BeanDefinition(ChainedBean.class);
+            if (i > 0) {
+                beanDefinition.getPropertyValues().addPropertyValue(new PropertyValue("next", new BeanReference("chained" + (i - 1))));
+            }
+            chainFactory.registerBeanDefinition("chained" + i, beanDefinition);
+        }
+        ExecutorService chainExecutor = Executors.newFixedThreadPool(4);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try {
+            chainFactory.setPreInstantiationExecutor(chainExecutor);
+            // 在栈较小的线程中预实例化，递归排序在这样的依赖链上会栈溢出
+            Thread preInstantiation = new Thread(null, () -> {
+                try {
+                    chainFactory.preInstantiateSingletons();
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            }, "pre-instantiate", 256 * 1024);
+            preInstantiation.start();
+            preInstantiation.join();
+        } finally {
+            chainExecutor.shutdown();
+        }
+        Assert.assertNull(failure.get());
+        ChainedBean last = (ChainedBean) chainFactory.getSingleton("chained" + (chainLength - 1));
+        Assert.assertSame(chainFactory.getSingleton("chained" + (chainLength - 2)), last.next);
+    }
+
+    @Test
+    public void test_constructorResolution() {
+        // 1.初始化 BeanFactory，注册没有属性值的 BeanDefinition
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("userService", new BeanDefinition(UserService.class));
+        beanFactory.registerBeanDefinition("userServiceWithDao", new BeanDefinition(UserService.class));
+
+        // 2. 参数个数相同的构造函数按实参类型匹配
+        UserService userService = (UserService) beanFactory.getBean("userService", "10002");
+        Assert.assertEquals("10002", userService.getuId());
+
+        UserDao userDao = new UserDao();
+        UserService userServiceWithDao = (UserService) beanFactory.getBean("userServiceWithDao", userDao);
+        Assert.assertSame(userDao, userServiceWithDao.getUserDao());
+    }
+
+    @Test
+    public void test_cglibSubclassCache() throws Exception {
+        CglibSubclassingInstantiationStrategy strategy = new CglibSubclassingInstantiationStrategy();
+        BeanDefinition beanDefinition = new BeanDefinition(UserService.class);
+        Constructor<UserService> ctor = UserService.class.getDeclaredConstructor(String.class);
+
+        // 多次实例化复用同一个 CGLIB 子类
+        Object first = strategy.instantiate(beanDefinition, "userService", null, null);
+        Object second = strategy.instantiate(beanDefinition, "userService", ctor, new Object[]{"10002"});
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(first.getClass(), second.getClass());
+        Assert.assertEquals(UserService.class, first.getClass().getSuperclass());
+        Assert.assertEquals("10002", ((UserService) second).getuId());
+    }
+
+    @Test
+    public void test_methodHandleInstantiationStrategy() {
+        // 1.初始化 BeanFactory，并切换为 MethodHandle 实例化策略
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setInstantiationStrategy(new MethodHandleInstantiationStrategy());
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        reader.loadBeanDefinitions("classpath:spring.xml");
+        beanFactory.registerBeanDefinition("userServiceWithId", new BeanDefinition(UserService.class));
+
+        // 2. 创建的是 bean 类本身而不是 CGLIB 子类
+        UserService userService = beanFactory.getBean("userService", UserService.class);
+        Assert.assertEquals(UserService.class, userService.getClass());
+        Assert.assertEquals("小傅哥,腾讯,深圳", userService.queryUserInfo());
+
+        // 3. 带参数的构造函数
+        UserService userServiceWithId = (UserService) beanFactory.getBean("userServiceWithId", "10003");
+        Assert.assertEquals("10003", userServiceWithId.getuId());
+    }
+
+    @Test
+    public void test_propertyInjector() {
+        PropertyInjector propertyInjector = new PropertyInjector();
+        InjectionTarget target = new InjectionTarget();
+
+        // 1. 私有字段、父类字段直接写入
+        propertyInjector.inject("injectionTarget", target, "name", "small-spring");
+        propertyInjector.inject("injectionTarget", target, "count", 7);
+        Assert.assertEquals("small-spring", target.getName());
+        Assert.assertEquals(7, target.count);
+        Assert.assertEquals(String.class, propertyInjector.getPropertyType(InjectionTarget.class, "name"));
+        Assert.assertEquals(int.class, propertyInjector.getPropertyType(InjectionTarget.class, "count"));
+
+        // 2. 类型不兼容时通过 Convert 转换，包括基本类型
+        propertyInjector.inject("injectionTarget", target, "count", "42");
+        propertyInjector.inject("injectionTarget", target, "timeout", "1500");
+        propertyInjector.inject("injectionTarget", target, "enabled", "true");
+        Assert.assertEquals(42, target.count);
+        Assert.assertEquals(1500L, target.timeout);
+        Assert.assertTrue(target.enabled);
+
+        // 3. 引用类型字段可以写入 null
+        propertyInjector.inject("injectionTarget", target, "name", null);
+        Assert.assertNull(target.getName());
+
+        // 4. 基本类型字段写入 null 时报错，并指明 Bean 与字段
+        try {
+            propertyInjector.inject("injectionTarget", target, "count", null);
+            Assert.fail("expected BeansException");
+        } catch (BeansException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("[count]"));
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("'injectionTarget'"));
+        }
+        Assert.assertEquals(42, target.count);
+
+        // 5. 不存在的字段
+        try {
+            propertyInjector.inject("injectionTarget", target, "missing", "x");
+            Assert.fail("expected BeansException");
+        } catch (BeansException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("[missing]"));
+        }
+    }
+
+    @Test
+    public void test_scope() {
+        // 1.初始化 BeanFactory
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        reader.loadBeanDefinitions("classpath:springScope.xml");
+        beanFactory.preInstantiateSingletons();
+
+        // 2. 原型作用域每次创建新实例，单例依赖保持共享
+        UserService first = beanFactory.getBean("userService", UserService.class);
+        UserService second = beanFactory.getBean("userService", UserService.class);
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(first.getUserDao(), second.getUserDao());
+
+        // 3. 池化作用域借出不同实例，归还后可以再次借出
+        Object a = beanFactory.borrowBean("pooledUserService");
+        Object b = beanFactory.borrowBean("pooledUserService");
+        Assert.assertNotSame(a, b);
+        beanFactory.returnBean("pooledUserService", a);
+        Assert.assertSame(a, beanFactory.borrowBean("pooledUserService"));
+
+        // 4. 重复归还、归还其他来源的实例，以及通过 getBean 获取池化 Bean 都会失败
+        beanFactory.returnBean("pooledUserService", b);
+        for (Object instance : new Object[]{b, new UserService()}) {
+            try {
+                beanFactory.returnBean("pooledUserService", instance);
+                Assert.fail("expected rejected return");
+            } catch (BeansException e) {
+                Assert.assertTrue(e.getMessage().contains("was not borrowed from this pool"));
+            }
+        }
+        try {
+            beanFactory.getBean("pooledUserService");
+            Assert.fail("expected pooled bean to require borrowBean");
+        } catch (BeansException e) {
+            Assert.assertTrue(e.getMessage().contains("borrowBean"));
+        }
+
+        // 5. 池中实例数量不超过容量，所有实例都借出时借出失败
+        Object c = beanFactory.borrowBean("pooledUserService");
+        try {
+            beanFactory.borrowBean("pooledUserService");
+            Assert.fail("expected exhausted pool");
+        } catch (BeansException e) {
+            Assert.assertTrue(e.getMessage().contains("Pool exhausted"));
+        }
+        beanFactory.returnBean("pooledUserService", c);
+        beanFactory.returnBean("pooledUserService", a);
+    }
+
+    @Test
+    public void test_pooledInstanceNotPinned() throws Exception {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition beanDefinition = new BeanDefinition(UserService.class);
+        beanDefinition.setScope(ConfigurableBeanFactory.SCOPE_POOLED);
+        beanDefinition.setPoolSize(1);
+        beanFactory.registerBeanDefinition("pooledUserService", beanDefinition);
+
+        // 借出后从不归还的实例不被池引用，可以被垃圾回收
+        WeakReference<Object> abandoned = new WeakReference<>(beanFactory.borrowBean("pooledUserService"));
+        for (int i = 0; i < 50 && abandoned.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        Assert.assertNull(abandoned.get());
+    }
+
+    @Test
+    public void test_threadScope() throws Exception {
+        // 1.初始化 BeanFactory，注册线程作用域的 BeanDefinition
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition beanDefinition = new BeanDefinition(UserDao.class);
+        beanDefinition.setScope(ConfigurableBeanFactory.SCOPE_THREAD);
+        beanFactory.registerBeanDefinition("userDao", beanDefinition);
+        ThreadScope threadScope = (ThreadScope) beanFactory.getRegisteredScope(ConfigurableBeanFactory.SCOPE_THREAD);
+
+        // 2. 同一上下文中是同一个实例，作用域结束时执行销毁回调
+        AtomicInteger destroyed = new AtomicInteger();
+        Object inMainThread;
+        ThreadScope.Context context = threadScope.begin();
+        try {
+            inMainThread = beanFactory.getBean("userDao");
+            Assert.assertSame(inMainThread, beanFactory.getBean("userDao"));
+            threadScope.registerDestructionCallback("userDao", destroyed::incrementAndGet);
+        } finally {
+            context.close();
+        }
+        Assert.assertEquals(1, destroyed.get());
+        Assert.assertFalse(threadScope.isActive());
+
+        // 3. 其他线程拿到的是各自的实例
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Object inOtherThread = executor.submit(() -> {
+            ThreadScope.Context otherContext = threadScope.begin();
+            try {
+                return beanFactory.getBean("userDao");
+            } finally {
+                otherContext.close();
+            }
+        }).get();
+        executor.shutdown();
+        Assert.assertNotSame(inMainThread, inOtherThread);
+    }
+
+    @Test
+    public void test_getBeansOfType() {
+        // 1.初始化 BeanFactory
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        reader.loadBeanDefinitions("classpath:springPostProcessor.xml");
+
+        // 2. 按接口、具体类和 Object 查找
+        Assert.assertEquals(1, beanFactory.getBeansOfType(BeanPostProcessor.class).size());
+        Assert.assertArrayEquals(new String[]{"userService"}, beanFactory.getBeanNamesForType(UserService.class));
+        Assert.assertEquals(4, beanFactory.getBeanNamesForType(Object.class).length);
+        Assert.assertEquals(0, beanFactory.getBeanNamesForType(Runnable.class).length);
+
+        // 3. 覆盖注册后索引同步更新
+        beanFactory.registerBeanDefinition("userService", new BeanDefinition(UserDao.class));
+        Assert.assertEquals(0, beanFactory.getBeanNamesForType(UserService.class).length);
+        Assert.assertEquals(2, beanFactory.getBeanNamesForType(UserDao.class).length);
+    }
+
+    @Test
+    public void test_getBeanByType() {
+        // 1.初始化 BeanFactory
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        reader.loadBeanDefinitions("classpath:spring.xml");
+
+        // 2. 按类型获取唯一的 Bean
+        UserService userService = beanFactory.getBean(UserService.class);
+        Assert.assertSame(beanFactory.getBean("userService"), userService);
+
+        // 3. ObjectProvider 在 Bean 不存在时返回 null
+        ObjectProvider<UserDao> userDaoProvider = beanFactory.getBeanProvider(UserDao.class);
+        Assert.assertSame(userService.getUserDao(), userDaoProvider.getObject());
+        Assert.assertNull(beanFactory.getBeanProvider(Runnable.class).getIfAvailable());
+
+        // 4. 类型不匹配时立即失败
+        try {
+            beanFactory.getBean("userDao", UserService.class);
+            Assert.fail("expected BeansException");
+        } catch (BeansException e) {
+            Assert.assertTrue(e.getMessage().contains("userDao"));
+        }
+    }
+
+    @Test
+    public void test_freezeConfiguration() {
+        // 1.初始化 BeanFactory 并冻结配置
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        reader.loadBeanDefinitions("classpath:spring.xml");
+        Object userDao = beanFactory.getBean("userDao");
+        beanFactory.freezeConfiguration();
+        beanFactory.preInstantiateSingletons();
+
+        // 2. 冻结前后创建的单例都能通过索引取到
+        Assert.assertTrue(beanFactory.isConfigurationFrozen());
+        Assert.assertSame(userDao, beanFactory.getSingleton("userDao"));
+        Assert.assertSame(userDao, beanFactory.getBean("userService", UserService.class).getUserDao());
+        Assert.assertNull(beanFactory.getSingleton("notDefined"));
+
+        // 3. 冻结后不允许再注册
+        try {
+            beanFactory.registerBeanDefinition("another", new BeanDefinition(UserDao.class));
+            Assert.fail("expected BeansException");
+        } catch (BeansException e) {
+            Assert.assertFalse(beanFactory.containsBeanDefinition("another"));
+        }
+    }
+
+    @Test
+    public void test_beanHandle() {
+        // 1.初始化 BeanFactory
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        reader.loadBeanDefinitions("classpath:springScope.xml");
+
+        // 2. 单例句柄始终返回同一个实例
+        BeanHandle<UserDao> userDaoHandle = beanFactory.getBeanHandle("userDao", UserDao.class);
+        Assert.assertSame(userDaoHandle.get(), userDaoHandle.get());
+        Assert.assertSame(beanFactory.getBean("userDao"), userDaoHandle.get());
+
+        // 3. 原型句柄每次都重新创建
+        BeanHandle<Object> userServiceHandle = beanFactory.getBeanHandle("userService");
+        Assert.assertNotSame(userServiceHandle.get(), userServiceHandle.get());
+        Assert.assertEquals("userService", userServiceHandle.getBeanName());
+    }
+
+    @Test
+    public void test_singletonLookupAllocationFree() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled());
+
+        // 1.初始化 BeanFactory 并预热单例
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        reader.loadBeanDefinitions("classpath:spring.xml");
+        beanFactory.freezeConfiguration();
+        beanFactory.preInstantiateSingletons();
+        for (int i = 0; i < 20_000; i++) {
+            beanFactory.getBean("userService");
+            beanFactory.getBean("userService", UserService.class);
+        }
+
+        // 2. 已预热的单例查找不分配对象。分别测量 N 次和 2N 次调用，两者之差只含 N 次调用本身的分配，
+        //    测量和 JIT 编译等固定开销相互抵消；取多轮中的最小值排除偶发的去优化。每次调用哪怕分配 16 字节也会超过 3MB
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < 5 && allocated >= 1024; round++) {
+            long single = measureLookupAllocation(threadMXBean, beanFactory, 100_000);
+            long doubled = measureLookupAllocation(threadMXBean, beanFactory, 200_000);
+            allocated = Math.min(allocated, Math.max(0, doubled - single));
+        }
+        Assert.assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+    }
+
+    private static long measureLookupAllocation(com.sun.management.ThreadMXBean threadMXBean, DefaultListableBeanFactory beanFactory, int iterations) {
+        long threadId = Thread.currentThread().getId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            beanFactory.getBean("userService");
+            beanFactory.getBean("userService", UserService.class);
+        }
+        return threadMXBean.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    @Test
+    public void test_lazyInit() {
+        // 1.初始化 BeanFactory 并预实例化单例
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        reader.loadBeanDefinitions("classpath:springLazy.xml");
+        beanFactory.preInstantiateSingletons();
+
+        // 2. 延迟初始化的 userDao 没有被创建，userService 注入的是延迟解析代理
+        Assert.assertTrue(beanFactory.getBeanDefinition("userDao").isLazyInit());
+        Assert.assertNull(beanFactory.getSingleton("userDao"));
+        UserService userService = (UserService) beanFactory.getSingleton("userService");
+        Assert.assertNotNull(userService);
+
+        // 3. 第一次使用时才创建目标 Bean
+        Assert.assertEquals("小傅哥,腾讯,深圳", userService.queryUserInfo());
+        Assert.assertNotNull(beanFactory.getSingleton("userDao"));
+    }
+
+    @Test
+    public void test_lazyReferenceTargets() {
+        // 1. 延迟引用原型 Bean 时，每次调用都重新获取目标，不固定第一次创建的实例
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanFactoryMetrics metrics = new BeanFactoryMetrics();
+        beanFactory.setBeanFactoryMetrics(metrics);
+        BeanDefinition userDaoDefinition = new BeanDefinition(UserDao.class.getName());
+        userDaoDefinition.setScope(ConfigurableBeanFactory.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("userDao", userDaoDefinition);
+        BeanDefinition userServiceDefinition = new BeanDefinition(UserService.class);
+        userServiceDefinition.getPropertyValues().addPropertyValue(new PropertyValue("uId", "10001"));
+        userServiceDefinition.getPropertyValues().addPropertyValue(new PropertyValue("userDao", new BeanReference("userDao", true)));
+        beanFactory.registerBeanDefinition("userService", userServiceDefinition);
+        UserService userService = beanFactory.getBean("userService", UserService.class);
+        Assert.assertEquals("Lazy resolution proxy for bean 'userDao'", userService.getUserDao().toString());
+        Assert.assertNull(metrics.getBeanCreationCounts().get("userDao"));
+        userService.queryUserInfo();
+        userService.queryUserInfo();
+        Assert.assertEquals(Long.valueOf(2), metrics.getBeanCreationCounts().get("userDao"));
+
+        // 2. 提供者和接口代理不需要目标类
+        LazyResolutionProxyFactory proxyFactory = new LazyResolutionProxyFactory();
+        Supplier<Class<?>> failingResolver = () -> {
+            throw new AssertionError("target class must not be resolved");
+        };
+        Assert.assertTrue(proxyFactory.createLazyReference(beanFactory, "userDao", ObjectProvider.class, failingResolver, false) instanceof ObjectProvider);
+        Assert.assertTrue(proxyFactory.createLazyReference(beanFactory, "userDao", Runnable.class, failingResolver, false) instanceof Runnable);
+
+        // 3. 代理的 toString、equals 和 hashCode 不创建目标 Bean，目标创建后 toString 返回目标的描述
+        beanFactory.registerBeanDefinition("singletonUserDao", new BeanDefinition(UserDao.class));
+        Object lazyUserDao = proxyFactory.createLazyReference(beanFactory, "singletonUserDao", UserDao.class, () -> UserDao.class, true);
+        Object lazyRunnable = proxyFactory.createLazyReference(beanFactory, "singletonUserDao", Runnable.class, failingResolver, true);
+        for (Object proxy : new Object[]{lazyUserDao, lazyRunnable}) {
+            Assert.assertEquals("Lazy resolution proxy for bean 'singletonUserDao'", proxy.toString());
+            Assert.assertEquals(System.identityHashCode(proxy), proxy.hashCode());
+            Assert.assertTrue(proxy.equals(proxy));
+            Assert.assertFalse(proxy.equals(beanFactory.getBean("userDao")));
+        }
+        Assert.assertNull(metrics.getBeanCreationCounts().get("singletonUserDao"));
+        ((UserDao) lazyUserDao).queryUserName("10001");
+        Assert.assertEquals(beanFactory.getBean("singletonUserDao").toString(), lazyUserDao.toString());
+    }
+
+    @Test
+    public void test_generatedApplicationContext() throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Assume.assumeNotNull(compiler);
+
+        // 1. 根据 XML 配置生成上下文源代码
+        File outputDir = Files.createTempDirectory("small-spring-aot").toFile();
+        String className = "com.valyn.springframework.test.generated.GeneratedApplicationContext";
+        File sourceFile = new ApplicationContextSourceGenerator().generateTo(outputDir, className, "classpath:spring.xml");
+        String source = new String(Files.readAllBytes(sourceFile.toPath()), StandardCharsets.UTF_8);
+        Assert.assertTrue(source.contains("bean.setuId(\"10001\")"));
+        Assert.assertTrue(source.contains("beanFactory.getBean(\"userDao\", com.valyn.springframework.test.bean.UserDao.class)"));
+
+        // 2. 编译生成的源代码
+        String classpath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+        int result = compiler.run(null, null, null, "-encoding", "UTF-8", "-classpath", classpath, "-d", outputDir.getPath(), sourceFile.getPath());
+        Assert.assertEquals(0, result);
+
+        // 3. 加载生成的上下文，不再读取 XML
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{outputDir.toURI().toURL()}, getClass().getClassLoader())) {
+            ApplicationContext applicationContext = (ApplicationContext) classLoader.loadClass(className).getConstructor().newInstance();
+            UserService userService = applicationContext.getBean("userService", UserService.class);
+            Assert.assertEquals("小傅哥,腾讯,深圳", userService.queryUserInfo());
+            Assert.assertSame(applicationContext.getBean("userDao"), userService.getUserDao());
+        }
+    }
+
+    @Test
+    public void test_definitionCache() throws Exception {
+        File cacheDir = Files.createTempDirectory("small-spring-cache").toFile();
+
+        // 1. 第一次加载解析 XML 并写入缓存
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        reader.setDefinitionCacheDirectory(cacheDir);
+        reader.loadBeanDefinitions("classpath:springLazy.xml");
+        File[] cacheFiles = cacheDir.listFiles((dir, name) -> name.endsWith(".bdc"));
+        Assert.assertNotNull(cacheFiles);
+        Assert.assertEquals(1, cacheFiles.length);
+        byte[] cached = Files.readAllBytes(cacheFiles[0].toPath());
+
+        // 2. 第二次加载从缓存还原，结果与解析 XML 相同
+        DefaultListableBeanFactory cachedFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader cachedReader = new XmlBeanDefinitionReader(cachedFactory);
+        cachedReader.setDefinitionCacheDirectory(cacheDir);
+        cachedReader.loadBeanDefinitions("classpath:springLazy.xml");
+        Assert.assertTrue(cachedFactory.getBeanDefinition("userDao").isLazyInit());
+        Assert.assertEquals("小傅哥,腾讯,深圳", cachedFactory.getBean("userService", UserService.class).queryUserInfo());
+
+        // 3. 缓存损坏时回退到解析 XML，并重写缓存
+        Files.write(cacheFiles[0].toPath(), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        DefaultListableBeanFactory fallbackFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader fallbackReader = new XmlBeanDefinitionReader(fallbackFactory);
+        fallbackReader.setDefinitionCacheDirectory(cacheDir);
+        fallbackReader.loadBeanDefinitions("classpath:springLazy.xml");
+        Assert.assertEquals("小傅哥,腾讯,深圳", fallbackFactory.getBean("userService", UserService.class).queryUserInfo());
+        Assert.assertArrayEquals(cached, Files.readAllBytes(cacheFiles[0].toPath()));
+    }
+
+    @Test
+    public void test_staxBeanDefinitionReader() throws Exception {
+        // 1. 使用流式读取器加载配置，开启预加载时类只被预热，BeanDefinition 仍然只有类名
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        StaxXmlBeanDefinitionReader reader = new StaxXmlBeanDefinitionReader(beanFactory);
+        reader.setClassPreloadExecutor(Runnable::run);
+        reader.loadBeanDefinitions("classpath:springScope.xml");
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            Assert.assertFalse(beanFactory.getBeanDefinition(beanName).hasBeanClass());
+        }
+
+        // 2. 解析结果与 DOM 读取器一致
+        DefaultListableBeanFactory domFactory = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(domFactory).loadBeanDefinitions("classpath:springScope.xml");
+        for (String beanName : domFactory.getBeanDefinitionNames()) {
+            BeanDefinition expected = domFactory.getBeanDefinition(beanName);
+            BeanDefinition actual = beanFactory.getBeanDefinition(beanName);
+            Assert.assertEquals(expected.getBeanClassName(), actual.getBeanClassName());
+            Assert.assertEquals(expected.getScope(), actual.getScope());
+            Assert.assertEquals(expected.getPoolSize(), actual.getPoolSize());
+            Assert.assertEquals(expected.getPropertyValues().getPropertyValues().length, actual.getPropertyValues().getPropertyValues().length);
+        }
+        Assert.assertEquals(domFactory.getBeanDefinitionNames().length, beanFactory.getBeanDefinitionNames().length);
+        Assert.assertEquals("小傅哥,null,null", beanFactory.getBean("userService", UserService.class).queryUserInfo());
+
+        // 3. 同名 bean 仍然报错
+        try {
+            reader.loadBeanDefinitions("classpath:springScope.xml");
+            Assert.fail("expected duplicate bean name");
+        } catch (BeansException e) {
+            Assert.assertTrue(e.getMessage().contains("Duplicate beanName"));
+        }
+
+        // 4. 文档后部出错时不留下已读取的 bean；不展开文档中定义的实体
+        File directory = Files.createTempDirectory("small-spring-stax").toFile();
+        File invalid = new File(directory, "invalid.xml");
+        Files.write(invalid.toPath(), ("<beans><bean id=\"first\" class=\"" + UserDao.class.getName() + "\"/>"
+                + "<bean id=\"second\"/></beans>").getBytes(StandardCharsets.UTF_8));
+        File entities = new File(directory, "entities.xml");
+        Files.write(entities.toPath(), ("<?xml version=\"1.0\"?><!DOCTYPE beans [<!ENTITY lol \"lol\">"
+                + "<!ENTITY lol1 \"&lol;&lol;&lol;&lol;&lol;&lol;&lol;&lol;&lol;&lol;\">]>"
+                + "<beans><bean id=\"third\" class=\"" + UserDao.class.getName() + "\">"
+                + "<property name=\"name\" value=\"&lol1;\"/></bean></beans>").getBytes(StandardCharsets.UTF_8));
+        for (File file : new File[]{invalid, entities}) {
+            DefaultListableBeanFactory failedFactory = new DefaultListableBeanFactory();
+            try {
+                new StaxXmlBeanDefinitionReader(failedFactory).loadBeanDefinitions(new FileSystemResource(file));
+                Assert.fail("expected invalid document");
+            } catch (BeansException e) {
+                Assert.assertEquals(0, failedFactory.getBeanDefinitionNames().length);
+            }
+        }
+    }
+
+    @Test
+    public void test_parallelLoadBeanDefinitions() {
+        String[] locations = {"classpath:springScope.xml", "classpath:springFragment.xml"};
+
+        // 1. 并行解析多个资源，注册顺序与逐个加载相同
+        DefaultListableBeanFactory parallelFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader parallelReader = new XmlBeanDefinitionReader(parallelFactory);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            parallelReader.setParseExecutor(executor);
+            parallelReader.loadBeanDefinitions(locations);
+        } finally {
+            executor.shutdown();
+        }
+
+        DefaultListableBeanFactory serialFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader serialReader = new XmlBeanDefinitionReader(serialFactory);
+        serialReader.loadBeanDefinitions(locations);
+
+        Assert.assertArrayEquals(new String[]{"userDao", "userService", "pooledUserService", "fragmentUserDao", "fragmentUserService"},
+                serialFactory.getBeanDefinitionNames());
+        Assert.assertArrayEquals(serialFactory.getBeanDefinitionNames(), parallelFactory.getBeanDefinitionNames());
+        Assert.assertEquals("阿毛,阿里,杭州", parallelFactory.getBean("fragmentUserService", UserService.class).queryUserInfo());
+
+        // 2. 跨资源的同名 Bean 与逐个加载抛出相同的异常
+        String[] duplicated = {"classpath:springFragment.xml", "classpath:spring.xml", "classpath:springScope.xml"};
+        String parallelError = null;
+        String serialError = null;
+        DefaultListableBeanFactory parallelDuplicateFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader parallelDuplicateReader = new XmlBeanDefinitionReader(parallelDuplicateFactory);
+        ExecutorService duplicateExecutor = Executors.newFixedThreadPool(3);
+        try {
+            parallelDuplicateReader.setParseExecutor(duplicateExecutor);
+            parallelDuplicateReader.loadBeanDefinitions(duplicated);
+        } catch (BeansException e) {
+            parallelError = e.getMessage();
+        } finally {
+            duplicateExecutor.shutdown();
+        }
+        DefaultListableBeanFactory serialDuplicateFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader serialDuplicateReader = new XmlBeanDefinitionReader(serialDuplicateFactory);
+        try {
+            serialDuplicateReader.loadBeanDefinitions(duplicated);
+        } catch (BeansException e) {
+            serialError = e.getMessage();
+        }
+        Assert.assertEquals("Duplicate beanName[userDao] is not allowed", serialError);
+        Assert.assertEquals(serialError, parallelError);
+        Assert.assertArrayEquals(serialDuplicateFactory.getBeanDefinitionNames(), parallelDuplicateFactory.getBeanDefinitionNames());
+
+        // 3. 上下文使用执行器并行解析多个配置文件，多次刷新的注册顺序都与配置文件顺序一致
+        ExecutorService contextExecutor = Executors.newFixedThreadPool(2);
+        AtomicInteger parseTasks = new AtomicInteger();
+        try {
+            ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext(locations, task -> {
+                parseTasks.incrementAndGet();
+                contextExecutor.execute(task);
+            });
+            for (int i = 1; i <= 5; i++) {
+                Assert.assertEquals(locations.length * i, parseTasks.get());
+                Assert.assertArrayEquals(serialFactory.getBeanDefinitionNames(), applicationContext.getBeanDefinitionNames());
+                applicationContext.refresh();
+            }
+            Assert.assertEquals("阿毛,阿里,杭州", applicationContext.getBean("fragmentUserService", UserService.class).queryUserInfo());
+        } finally {
+            contextExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void test_deferredClassResolution() throws Exception {
+        // 1. XML 读取器只记录类名，注册时不加载类
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        reader.loadBeanDefinitions("classpath:springLazy.xml");
+        BeanDefinition userDaoDefinition = beanFactory.getBeanDefinition("userDao");
+        Assert.assertFalse(userDaoDefinition.hasBeanClass());
+        Assert.assertEquals(UserDao.class.getName(), userDaoDefinition.getBeanClassName());
+
+        // 2. 预实例化只解析非延迟 Bean 的类
+        beanFactory.preInstantiateSingletons();
+        Assert.assertTrue(beanFactory.getBeanDefinition("userService").hasBeanClass());
+        Assert.assertEquals("小傅哥,腾讯,深圳", beanFactory.getBean("userService", UserService.class).queryUserInfo());
+
+        // 3. 按类型查找时解析剩余的类并加入类型索引
+        DefaultListableBeanFactory typedFactory = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(typedFactory).loadBeanDefinitions("classpath:spring.xml");
+        Assert.assertArrayEquals(new String[]{"userDao"}, typedFactory.getBeanNamesForType(UserDao.class));
+        Assert.assertTrue(typedFactory.getBeanDefinition("userDao").hasBeanClass());
+
+        // 4. 类通过配置的 Bean 类加载器解析，找不到类时在创建时报错
+        DefaultListableBeanFactory missingFactory = new DefaultListableBeanFactory();
+        List<String> requested = new ArrayList<>();
+        missingFactory.setBeanClassLoader(new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                requested.add(name);
+                return super.loadClass(name, resolve);
+            }
+        });
+        missingFactory.registerBeanDefinition("missing", new BeanDefinition("com.valyn.springframework.test.bean.MissingBean"));
+        try {
+            missingFactory.getBean("missing");
+            Assert.fail("expected missing class");
+        } catch (BeansException e) {
+            Assert.assertTrue(e.getMessage().contains("com.valyn.springframework.test.bean.MissingBean"));
+        }
+        Assert.assertTrue(requested.contains("com.valyn.springframework.test.bean.MissingBean"));
+    }
+
+    @Test
+    public void test_startupClassList() throws Exception {
+        File classListFile = new File(Files.createTempDirectory("small-spring-classlist").toFile(), "startup.classlist");
+
+        // 1. 第一次启动记录刷新过程中加载的 Bean 类
+        ClassPathXmlApplicationContext first = new ClassPathXmlApplicationContext("classpath:spring.xml") {
+            @Override
+            protected File getStartupClassListFile() {
+                return classListFile;
+            }
+        };
+        Assert.assertEquals("小傅哥,腾讯,深圳", first.getBean("userService", UserService.class).queryUserInfo());
+        List<String> classNames = ClassPreloader.readClassList(classListFile);
+        Assert.assertTrue(classNames.contains(UserService.class.getName()));
+        Assert.assertTrue(classNames.contains(UserDao.class.getName()));
+
+        // 2. 之后的启动在后台预加载清单中的类，清单没有变化时不重写
+        long lastModified = classListFile.lastModified();
+        ClassPathXmlApplicationContext second = new ClassPathXmlApplicationContext("classpath:spring.xml") {
+            @Override
+            protected File getStartupClassListFile() {
+                return classListFile;
+            }
+        };
+        Assert.assertEquals("小傅哥,腾讯,深圳", second.getBean("userService", UserService.class).queryUserInfo());
+        Assert.assertEquals(classNames, ClassPreloader.readClassList(classListFile));
+        Assert.assertEquals(lastModified, classListFile.lastModified());
+
+        // 3. 清单中已不存在的类被忽略
+        List<String> stale = new ArrayList<>(classNames);
+        stale.add("com.valyn.springframework.test.bean.RemovedBean");
+        ClassPreloader preloader = new ClassPreloader(stale, getClass().getClassLoader(), 2, false).start();
+        Assert.assertTrue(preloader.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(classNames.size(), preloader.getLoadedCount());
+
+        // 4. 清单包含 Bean 类沿接口和方法签名引用的框架类，不包含 JDK 自带的类
+        File postProcessorClassListFile = new File(classListFile.getParentFile(), "postProcessor.classlist");
+        new ClassPathXmlApplicationContext("classpath:springPostProcessor.xml") {
+            @Override
+            protected File getStartupClassListFile() {
+                return postProcessorClassListFile;
+            }
+        };
+        List<String> referencedClassNames = ClassPreloader.readClassList(postProcessorClassListFile);
+        Assert.assertTrue(referencedClassNames.contains(MyBeanPostProcessor.class.getName()));
+        Assert.assertTrue(referencedClassNames.contains(BeanPostProcessor.class.getName()));
+        Assert.assertTrue(referencedClassNames.contains(ConfigurableListableBeanFactory.class.getName()));
+        Assert.assertFalse(referencedClassNames.contains(String.class.getName()));
+    }
+
+    @Test
+    public void test_targetedBeanPostProcessor() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(beanFactory).loadBeanDefinitions("classpath:springScope.xml");
+
+        // 1. 只处理 UserDao 的后置处理器
+        List<String> processed = new ArrayList<>();
+        beanFactory.addBeanPostProcessor(new TargetedBeanPostProcessor() {
+            @Override
+            public Class<?>[] getTargetTypes() {
+                return new Class<?>[]{UserDao.class};
+            }
+
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                processed.add(beanName);
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean;
+            }
+        });
+
+        // 2. 创建 userService（原型）时只有它依赖的 userDao 经过处理器
+        beanFactory.getBean("userService");
+        beanFactory.getBean("userService");
+        Assert.assertEquals(Collections.singletonList("userDao"), processed);
+
+        // 3. 注册新的处理器后，已缓存的处理器链失效
+        AtomicInteger counter = new AtomicInteger();
+        beanFactory.addBeanPostProcessor(new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                counter.incrementAndGet();
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean;
+            }
+        });
+        beanFactory.getBean("userService");
+        Assert.assertEquals(1, counter.get());
+        Assert.assertEquals(Collections.singletonList("userDao"), processed);
+    }
+
+    @Test
+    public void test_orderedBeanPostProcessors() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        List<String> invocations = new ArrayList<>();
+        OrderedRecordingProcessor plain = new OrderedRecordingProcessor("plain", null, invocations);
+        OrderedRecordingProcessor late = new OrderedRecordingProcessor("late", 10, invocations);
+        OrderedRecordingProcessor early = new OrderedRecordingProcessor("early", -10, invocations);
+        BeanPostProcessor priority = new PriorityRecordingProcessor(invocations);
+
+        // 1. PriorityOrdered 优先，其次按 Ordered 的排序值，未排序的最后
+        beanFactory.addBeanPostProcessor(plain);
+        beanFactory.addBeanPostProcessor(late);
+        beanFactory.addBeanPostProcessor(early);
+        beanFactory.addBeanPostProcessor(priority);
+        Assert.assertEquals(Arrays.asList(priority, early, late, plain), beanFactory.getBeanPostProcessors());
+
+        // 2. 重复注册不会产生重复项，创建 Bean 时按同样的顺序调用
+        beanFactory.addBeanPostProcessor(late);
+        Assert.assertEquals(4, beanFactory.getBeanPostProcessors().size());
+        beanFactory.registerBeanDefinition("userDao", new BeanDefinition(UserDao.class));
+        beanFactory.getBean("userDao");
+        Assert.assertEquals(Arrays.asList("priority", "early", "late", "plain"), invocations);
+
+        // 3. 返回的是只读快照
+        try {
+            beanFactory.getBeanPostProcessors().clear();
+            Assert.fail("expected read-only snapshot");
+        } catch (UnsupportedOperationException ignored) {
+        }
+    }
+
+    @Test
+    public void test_applicationStartup() {
+        RecordingApplicationStartup applicationStartup = new RecordingApplicationStartup();
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:spring.xml") {
+            @Override
+            public ApplicationStartup getApplicationStartup() {
+                return applicationStartup;
+            }
+        };
+        Assert.assertEquals("小傅哥,腾讯,深圳", applicationContext.getBean("userService", UserService.class).queryUserInfo());
+
+        // 1. 刷新阶段按顺序嵌套在 context.refresh 下
+        Map<Long, RecordedStep> steps = applicationStartup.steps;
+        RecordedStep refresh = steps.values().stream().filter(step -> step.name.equals("context.refresh")).findFirst().get();
+        Assert.assertEquals(-1, refresh.parentId);
+        List<String> phases = new ArrayList<>();
+        for (RecordedStep step : steps.values()) {
+            if (step.parentId == refresh.id) phases.add(step.name);
+        }
+        Assert.assertEquals(Arrays.asList("context.refresh-bean-factory", "context.bean-factory.post-process",
+                "context.beans.post-process", "context.beans.pre-instantiate"), phases);
+
+        // 2. 每个 Bean 的实例化、属性填充、初始化嵌套在 beans.create 下
+        for (RecordedStep step : steps.values()) {
+            Assert.assertTrue(step.name + " not ended", step.ended);
+            if (step.name.equals("beans.instantiate") || step.name.equals("beans.populate") || step.name.equals("beans.initialize")) {
+                RecordedStep parent = steps.get(step.parentId);
+                Assert.assertEquals("beans.create", parent.name);
+                Assert.assertEquals(parent.tags.get("beanName"), step.tags.get("beanName"));
+            }
+        }
+        List<String> created = new ArrayList<>();
+        for (RecordedStep step : steps.values()) {
+            if (step.name.equals("beans.create")) created.add(step.tags.get("beanName"));
+        }
+        Assert.assertTrue(created.containsAll(Arrays.asList("userDao", "userService")));
+    }
+
+    @Test
+    public void test_beanFactoryMetrics() throws Exception {
+        ObjectName objectName = new ObjectName("com.valyn.springframework.test:type=BeanFactoryMetrics");
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:spring.xml") {
+            @Override
+            protected boolean isMetricsEnabled() {
+                return true;
+            }
+
+            @Override
+            protected ObjectName getMetricsObjectName() {
+                return objectName;
+            }
+        };
+        try {
+            // 1. 预实例化时每个单例创建一次，缓存未命中
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            Assert.assertTrue(mBeanServer.isRegistered(objectName));
+            BeanFactoryMetricsMXBean metrics = JMX.newMXBeanProxy(mBeanServer, objectName, BeanFactoryMetricsMXBean.class);
+            Map<String, Long> creations = new HashMap<>();
+            creations.put("userDao", 1L);
+            creations.put("userService", 1L);
+            Assert.assertEquals(creations, metrics.getBeanCreationCounts());
+            Assert.assertEquals(2, metrics.getBeanCreationCount());
+            Assert.assertTrue(metrics.getSingletonCacheMissCount() >= 2);
+            Assert.assertEquals(1, LongStream.of(metrics.creationLatencyHistogram("userService")).sum());
+            Assert.assertEquals(metrics.getLatencyBucketLabels().length, metrics.creationLatencyHistogram("userService").length);
+
+            // 2. 之后的 getBean 命中单例缓存
+            long getBeanCount = metrics.getGetBeanCount();
+            long hits = metrics.getSingletonCacheHitCount();
+            applicationContext.getBean("userService");
+            applicationContext.getBean("userDao", UserDao.class);
+            Assert.assertEquals(getBeanCount + 2, metrics.getGetBeanCount());
+            Assert.assertEquals(hits + 2, metrics.getSingletonCacheHitCount());
+            Assert.assertEquals(Long.valueOf(2), mBeanServer.getAttribute(objectName, "BeanCreationCount"));
+        } finally {
+            applicationContext.close();
+        }
+        Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName));
+
+        // 3. 注册 MBean 之后刷新失败，MBean 随之注销
+        try {
+            new ClassPathXmlApplicationContext("classpath:spring.xml") {
+                @Override
+                protected boolean isMetricsEnabled() {
+                    return true;
+                }
+
+                @Override
+                protected ObjectName getMetricsObjectName() {
+                    return objectName;
+                }
+
+                @Override
+                protected File getBeanCreationProfileFile() {
+                    throw new IllegalStateException("refresh failed");
+                }
+            };
+            Assert.fail("expected refresh failure");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("refresh failed", e.getMessage());
+        }
+        Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName));
+    }
+
+    @Test
+    public void test_beanCreationProfiler() throws Exception {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanCreationProfiler profiler = new BeanCreationProfiler();
+        beanFactory.setBeanCreationProfiler(profiler);
+
+        // 1. userDao 在构造时分配 16MB 缓存，userService 依赖 userDao
+        int cacheSize = 16 << 20;
+        BeanDefinition userDaoDefinition = new BeanDefinition(UserDao.class);
+        userDaoDefinition.setInstanceSupplier(() -> {
+            byte[] cache = new byte[cacheSize];
+            Assert.assertEquals(cacheSize, cache.length);
+            return new UserDao();
+        });
+        beanFactory.registerBeanDefinition("userDao", userDaoDefinition);
+        BeanDefinition userServiceDefinition = new BeanDefinition(UserService.class);
+        userServiceDefinition.getPropertyValues().addPropertyValue(new PropertyValue("uId", "10001"));
+        userServiceDefinition.getPropertyValues().addPropertyValue(new PropertyValue("userDao", new BeanReference("userDao")));
+        beanFactory.registerBeanDefinition("userService", userServiceDefinition);
+        Assert.assertEquals("小傅哥", beanFactory.getBean("userService", UserService.class).queryUserInfo().split(",")[0]);
+
+        // 2. 依赖 Bean 的分配只算在 userDao 的 self 开销上
+        BeanCreationProfile userDao = profiler.getProfile("userDao");
+        BeanCreationProfile userService = profiler.getProfile("userService");
+        Assume.assumeTrue(userDao.getSelfAllocatedBytes() >= 0);
+        Assert.assertTrue(userDao.getSelfAllocatedBytes() >= cacheSize);
+        Assert.assertTrue(userService.getTotalAllocatedBytes() >= cacheSize);
+        Assert.assertTrue(userService.getSelfAllocatedBytes() < cacheSize);
+        Assert.assertEquals(userService.getTotalWallNanos() - userDao.getTotalWallNanos(), userService.getSelfWallNanos());
+        Assert.assertEquals("userDao", profiler.rankBySelfAllocatedBytes().get(0).getBeanName());
+        Assert.assertEquals(2, profiler.rankBySelfCpuTime().size());
+
+        // 3. 上下文刷新时输出 JSON 报告
+        File profileFile = new File(Files.createTempDirectory("small-spring-profile").toFile(), "beans.json");
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:spring.xml") {
+            @Override
+            protected File getBeanCreationProfileFile() {
+                return profileFile;
+            }
+        };
+        Assert.assertNotNull(applicationContext.getBeanCreationProfiler().getProfile("userService"));
+        JSONObject report = JSONUtil.parseObj(new String(Files.readAllBytes(profileFile.toPath()), StandardCharsets.UTF_8));
+        Assert.assertEquals(2, report.getJSONArray("bySelfAllocatedBytes").size());
+        Assert.assertEquals(2, report.getJSONArray("bySelfCpuTime").size());
+    }
+
+    private static class OrderedRecordingProcessor implements BeanPostProcessor, Ordered {
+
+        private final String name;
+        private final Integer order;
+        private final List<String> invocations;
+
+        OrderedRecordingProcessor(String name, Integer order, List<String> invocations) {
+            this.name = name;
+            this.order = order;
+            this.invocations = invocations;
+        }
+
+        @Override
+        public int getOrder() {
+            return order != null ? order : Ordered.LOWEST_PRECEDENCE;
+        }
+
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) {
+            invocations.add(name);
+            return bean;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean;
+        }
+    }
+
+    private static class PriorityRecordingProcessor extends OrderedRecordingProcessor implements PriorityOrdered {
+
+        PriorityRecordingProcessor(List<String> invocations) {
+            super("priority", 100, invocations);
+        }
+    }
+
+    private static class RecordingApplicationStartup implements ApplicationStartup {
+
+        private final Map<Long, RecordedStep> steps = new LinkedHashMap<>();
+
+        private final Deque<RecordedStep> current = new ArrayDeque<>();
+
+        @Override
+        public StartupStep start(String name) {
+            RecordedStep parent = current.peek();
+            RecordedStep step = new RecordedStep(steps.size() + 1, parent != null ? parent.id : -1, name, current);
+            steps.put(step.id, step);
+            current.push(step);
+            return step;
+        }
+    }
+
+    private static class RecordedStep implements StartupStep {
+
+        private final long id;
+
+        private final long parentId;
+
+        private final String name;
+
+        private final Map<String, String> tags = new HashMap<>();
+
+        private final Deque<RecordedStep> current;
+
+        private boolean ended;
+
+        RecordedStep(long id, long parentId, String name, Deque<RecordedStep> current) {
+            this.id = id;
+            this.parentId = parentId;
+            this.name = name;
+            this.current = current;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public long getParentId() {
+            return parentId;
+        }
+
+        @Override
+        public StartupStep tag(String key, String value) {
+            tags.put(key, value);
+            return this;
+        }
+
+        @Override
+        public void end() {
+            Assert.assertSame("steps must end in reverse start order", this, current.pop());
+            ended = true;
+        }
+    }
+
+    static class ChainedBean {
+
+        private ChainedBean next;
+    }
+
+    private static class InjectionBase {
+
+        private String name;
+
+        String getName() {
+            return name;
+        }
+    }
+
+    private static class InjectionTarget extends InjectionBase {
+
+        private int count;
+
+        private long timeout;
+
+        private boolean enabled;
+    }
+
 }
@@ -7,6 +7,17 @@ public class UserService {
     private String location;
     private UserDao userDao;
 
+    public UserService() {
+    }
+
+    public UserService(String uId) {
+        this.uId = uId;
+    }
+
+    public UserService(UserDao userDao) {
+        this.userDao = userDao;
+    }
+
     public String queryUserInfo() {
         return userDao.queryUserName(uId) + "," + company + "," + location;
     }
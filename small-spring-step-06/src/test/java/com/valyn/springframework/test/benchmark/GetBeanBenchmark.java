@@ -0,0 +1,72 @@
+package com.valyn.springframework.test.benchmark;
+
+import com.valyn.springframework.beans.factory.support.DefaultListableBeanFactory;
+import com.valyn.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import com.valyn.springframework.test.bean.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已预热单例的 getBean 基准测试，配合 GC 分配分析器（-prof gc）观察 gc.alloc.rate.norm，预期为 0 B/op。
+ *
+ * 运行方式：直接执行 main 方法，或 mvn test-compile 后以 test classpath 执行 org.openjdk.jmh.Main GetBeanBenchmark -prof gc。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GetBeanBenchmark {
+
+    @Param({"false", "true"})
+    private boolean frozen;
+
+    private DefaultListableBeanFactory beanFactory;
+
+    @Setup
+    public void setUp() {
+        beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        reader.loadBeanDefinitions("classpath:spring.xml");
+        if (frozen) {
+            beanFactory.freezeConfiguration();
+        }
+        beanFactory.preInstantiateSingletons();
+    }
+
+    @Benchmark
+    public Object getBeanByName() {
+        return beanFactory.getBean("userService");
+    }
+
+    @Benchmark
+    public UserService getBeanByNameAndType() {
+        return beanFactory.getBean("userService", UserService.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(GetBeanBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+}